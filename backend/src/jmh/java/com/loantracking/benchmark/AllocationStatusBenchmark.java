@@ -0,0 +1,41 @@
+package com.loantracking.benchmark;
+
+import com.loantracking.model.PaymentAllocationStatus;
+import com.loantracking.model.PaymentStatus;
+import com.loantracking.service.PaymentAllocationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation status rule applied to every group-expense allocation when entries are listed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocationStatusBenchmark {
+
+    private BigDecimal allocated;
+    private BigDecimal[] paidAmounts;
+
+    @Setup
+    public void setUp() {
+        allocated = new BigDecimal("1250.00");
+        // Unpaid, partially paid, exactly paid and overpaid shares
+        paidAmounts = new BigDecimal[]{null, BigDecimal.ZERO, new BigDecimal("400.50"),
+                new BigDecimal("1250.00"), new BigDecimal("1300")};
+    }
+
+    @Benchmark
+    public void computeStatus(Blackhole blackhole) {
+        for (BigDecimal paid : paidAmounts) {
+            PaymentAllocationStatus status = PaymentAllocationService.computeStatus(PaymentStatus.PARTIALLY_PAID, paid, allocated);
+            blackhole.consume(status);
+        }
+    }
+}
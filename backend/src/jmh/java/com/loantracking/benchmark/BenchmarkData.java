@@ -0,0 +1,181 @@
+package com.loantracking.benchmark;
+
+import com.loantracking.model.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic dataset shaped like production data: a mix of straight,
+ * installment and group entries with payments, installment terms and allocations.
+ * Child rows are indexed by parent id so in-memory repositories answer IN (...) lookups cheaply.
+ */
+final class BenchmarkData {
+
+    final List<Person> persons = new ArrayList<>();
+    final List<Entry> entries = new ArrayList<>();
+    final Map<UUID, List<InstallmentTerm>> termsByPlan = new HashMap<>();
+    final Map<UUID, List<PaymentEntry>> paymentEntriesByEntry = new HashMap<>();
+    final Map<UUID, List<PaymentAllocation>> allocationsByEntry = new HashMap<>();
+    final Map<UUID, Object[]> allocationSummaries = new HashMap<>();
+    final List<UUID> entryIdsWithProof = new ArrayList<>();
+    final List<UUID> paymentIdsWithProof = new ArrayList<>();
+
+    private static final String[] FIRST_NAMES = {"Juan", "Maria", "Jose", "Ana", "Carlo", "Bea", "Miguel", "Lara"};
+    private static final String[] LAST_NAMES = {"Dela Cruz", "Santos", "Reyes", "Garcia", "Mendoza", "Torres"};
+
+    BenchmarkData(int entryCount) {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 24; i++) {
+            Person person = new Person();
+            person.setPersonId(new UUID(0, i + 1));
+            String first = FIRST_NAMES[i % FIRST_NAMES.length];
+            String last = LAST_NAMES[i % LAST_NAMES.length];
+            // Half the names use the "Surname, First Name, Initial" format
+            person.setFullName(i % 2 == 0 ? first + " " + last : last + ", " + first + ", " + (char) ('A' + i % 26));
+            persons.add(person);
+        }
+
+        Group group = new Group();
+        group.setGroupId(new UUID(1, 1));
+        group.setGroupName("Dorm Mates 2024");
+
+        for (int i = 0; i < entryCount; i++) {
+            Person lender = persons.get(random.nextInt(persons.size()));
+            Person borrower = persons.get(random.nextInt(persons.size()));
+            TransactionType type = TransactionType.values()[i % TransactionType.values().length];
+            BigDecimal amount = BigDecimal.valueOf(500 + random.nextInt(20000), 0);
+
+            Entry entry = new Entry();
+            entry.setEntryId(new UUID(2, i + 1));
+            entry.setEntryName("Entry " + i);
+            entry.setDescription("Synthetic entry " + i);
+            entry.setTransactionType(type);
+            entry.setDateBorrowed(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            entry.setLenderPerson(lender);
+            entry.setAmountBorrowed(amount);
+            entry.setAmountRemaining(amount);
+            entry.setStatus(PaymentStatus.values()[random.nextInt(PaymentStatus.values().length)]);
+            entry.setPaymentMethod(PaymentMethod.CASH);
+            entry.setReferenceId("REF" + i);
+            entry.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0).plusHours(i));
+            if (type == TransactionType.GROUP_EXPENSE) {
+                entry.setBorrowerGroup(group);
+            } else {
+                entry.setBorrowerPerson(borrower);
+            }
+            entries.add(entry);
+
+            if (type == TransactionType.INSTALLMENT_EXPENSE) {
+                addInstallmentPlan(entry, i);
+            }
+            if (type == TransactionType.GROUP_EXPENSE) {
+                addAllocations(entry, random);
+            }
+            addPayments(entry, borrower, random);
+            if (i % 3 == 0) {
+                entryIdsWithProof.add(entry.getEntryId());
+            }
+        }
+    }
+
+    private void addInstallmentPlan(Entry entry, int index) {
+        InstallmentPlan plan = new InstallmentPlan();
+        plan.setInstallmentId(new UUID(3, index + 1));
+        plan.setEntry(entry);
+        plan.setStartDate(entry.getDateBorrowed());
+        plan.setPaymentFrequency(index % 2 == 0 ? PaymentFrequency.MONTHLY : PaymentFrequency.WEEKLY);
+        plan.setPaymentTerms(12);
+        plan.setAmountPerTerm(entry.getAmountBorrowed().divide(BigDecimal.valueOf(12), 2, java.math.RoundingMode.HALF_UP));
+        plan.setPaymentFrequencyDay(index % 2 == 0 ? "15" : "FRIDAY");
+        plan.setNotes(index % 2 == 0 ? "pay on payday" : null);
+        entry.setInstallmentPlan(plan);
+
+        List<InstallmentTerm> terms = new ArrayList<>();
+        for (int t = 1; t <= plan.getPaymentTerms(); t++) {
+            InstallmentTerm term = new InstallmentTerm();
+            term.setTermId(new UUID(4, (long) index * 100 + t));
+            term.setInstallmentPlan(plan);
+            term.setTermNumber(t);
+            term.setDueDate(plan.getStartDate().plusMonths(t));
+            term.setTermStatus(t <= 3 ? InstallmentStatus.PAID : t == 4 ? InstallmentStatus.DELINQUENT : InstallmentStatus.NOT_STARTED);
+            term.setPenaltyApplied(t == 4 ? new BigDecimal("50.00") : null);
+            terms.add(term);
+        }
+        termsByPlan.put(plan.getInstallmentId(), terms);
+    }
+
+    private void addAllocations(Entry entry, Random random) {
+        List<PaymentAllocation> allocations = new ArrayList<>();
+        BigDecimal share = entry.getAmountBorrowed().divide(BigDecimal.valueOf(4), 2, java.math.RoundingMode.HALF_UP);
+        for (int a = 0; a < 4; a++) {
+            PaymentAllocation allocation = new PaymentAllocation();
+            allocation.setAllocationId(UUID.nameUUIDFromBytes((entry.getEntryId() + ":" + a).getBytes()));
+            allocation.setEntry(entry);
+            allocation.setPerson(persons.get(random.nextInt(persons.size())));
+            allocation.setDescription("Share " + a);
+            allocation.setAmount(share);
+            allocations.add(allocation);
+            if (a % 2 == 0) {
+                BigDecimal paid = a == 0 ? share : share.divide(BigDecimal.valueOf(2), 2, java.math.RoundingMode.HALF_UP);
+                allocationSummaries.put(allocation.getAllocationId(), new Object[]{allocation.getAllocationId(), 1L, paid});
+            }
+        }
+        allocationsByEntry.put(entry.getEntryId(), allocations);
+    }
+
+    private void addPayments(Entry entry, Person payee, Random random) {
+        List<PaymentEntry> links = new ArrayList<>();
+        int paymentCount = random.nextInt(4);
+        for (int p = 0; p < paymentCount; p++) {
+            Payment payment = new Payment();
+            payment.setPaymentId(UUID.nameUUIDFromBytes((entry.getEntryId() + "/" + p).getBytes()));
+            payment.setPaymentDate(entry.getDateBorrowed().plusDays(7L * (p + 1)));
+            payment.setPaymentAmount(BigDecimal.valueOf(100 + random.nextInt(900), 0));
+            payment.setChangeAmount(BigDecimal.ZERO);
+            payment.setPayeePerson(payee);
+            payment.setNotes("Payment " + p);
+
+            PaymentEntry link = new PaymentEntry();
+            link.setPaymentEntryId(UUID.nameUUIDFromBytes((entry.getEntryId() + "#" + p).getBytes()));
+            link.setPayment(payment);
+            link.setEntry(entry);
+            links.add(link);
+            if (p == 0) {
+                paymentIdsWithProof.add(payment.getPaymentId());
+            }
+        }
+        paymentEntriesByEntry.put(entry.getEntryId(), links);
+    }
+
+    // Concatenates the indexed child rows for the requested parent ids, like an IN (...) query
+    static <T> List<T> select(Map<UUID, List<T>> index, Object ids) {
+        List<T> rows = new ArrayList<>();
+        for (Object id : (Collection<?>) ids) {
+            List<T> children = index.get(id);
+            if (children != null) {
+                rows.addAll(children);
+            }
+        }
+        return rows;
+    }
+
+    static List<UUID> retain(Collection<UUID> known, Object ids) {
+        List<UUID> result = new ArrayList<>();
+        for (Object id : (Collection<?>) ids) {
+            if (known.contains(id)) {
+                result.add((UUID) id);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+package com.loantracking.benchmark;
+
+import com.loantracking.LoanTrackingApplication;
+import com.loantracking.dto.CreateEntryRequest;
+import com.loantracking.dto.CreatePaymentRequest;
+import com.loantracking.dto.GroupDTO;
+import com.loantracking.dto.PaymentDTO;
+import com.loantracking.dto.PersonDTO;
+import com.loantracking.model.TransactionType;
+import com.loantracking.service.DashboardSummaryService;
+import com.loantracking.service.EntryService;
+import com.loantracking.service.GroupService;
+import com.loantracking.service.PaymentService;
+import com.loantracking.service.PersonService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many members paying into the same group expense at once, through the real
+ * PaymentService.createPayment (EntryBalanceService lock and applyPayment, ledger event,
+ * dashboard summary delta) against an embedded PostgreSQL.
+ * After every iteration amount_remaining, the entry's ledger events and each member's
+ * user_dashboard_summary change must all account for exactly the payments made;
+ * a lost update fails the run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EntryBalanceContentionBenchmark {
+
+    private static final int MEMBERS = 8;
+    private static final BigDecimal AMOUNT_BORROWED = new BigDecimal("1000000000.00");
+    private static final BigDecimal PAYMENT = new BigDecimal("15.00");
+
+    private static final String ENTRY_BALANCE_SQL =
+            "SELECT e.amount_remaining, (SELECT COALESCE(SUM(l.amount), 0) FROM ledger_event l " +
+            "WHERE l.entry_id = e.entry_id) AS ledger_balance FROM entry e WHERE e.entry_id = :entryId";
+
+    private static final String DASHBOARD_REMAINING_SQL =
+            "SELECT person_id, total_remaining FROM user_dashboard_summary WHERE person_id IN (:personIds)";
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private UUID entryId;
+    private final List<UUID> payerIds = new ArrayList<>();
+    private final List<UUID> personIds = new ArrayList<>();
+
+    private final LongAdder payments = new LongAdder();
+    private BigDecimal remainingBefore;
+    private Map<UUID, BigDecimal> dashboardBefore;
+
+    /**
+     * Payments made by one benchmark thread, reported next to the throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PaymentCounters {
+        public long payments;
+        private UUID payeeId;
+
+        @Setup(Level.Trial)
+        public void setUp(EntryBalanceContentionBenchmark benchmark, ThreadParams threads) {
+            payeeId = benchmark.payerIds.get(threads.getThreadIndex() % MEMBERS);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(LoanTrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, so they take precedence over application.properties
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        // One connection per paying thread, plus the background jobs
+                        "--spring.datasource.hikari.maximum-pool-size=" + (MEMBERS + 4),
+                        "--app.attachments.storage-dir=target/benchmark-attachments",
+                        "--app.attachments.migration-initial-delay=PT1H",
+                        "--app.attachments.gc-initial-delay=PT1H",
+                        "--logging.level.root=WARN");
+        paymentService = context.getBean(PaymentService.class);
+        jdbcTemplate = context.getBean(NamedParameterJdbcTemplate.class);
+
+        PersonService personService = context.getBean(PersonService.class);
+        UUID lenderId = personService.createPerson(new PersonDTO(null, "Lender")).getPersonId();
+        List<PersonDTO> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            PersonDTO member = personService.createPerson(new PersonDTO(null, "Member " + i));
+            members.add(member);
+            payerIds.add(member.getPersonId());
+        }
+        UUID groupId = context.getBean(GroupService.class)
+                .createGroup(new GroupDTO(null, "Contention", members)).getGroupId();
+
+        CreateEntryRequest entry = new CreateEntryRequest();
+        entry.setEntryName("Shared expense");
+        entry.setTransactionType(TransactionType.GROUP_EXPENSE);
+        entry.setLenderPersonId(lenderId);
+        entry.setBorrowerGroupId(groupId);
+        entry.setAmountBorrowed(AMOUNT_BORROWED);
+        entryId = context.getBean(EntryService.class).createEntry(entry, null).getEntryId();
+
+        personIds.add(lenderId);
+        personIds.addAll(payerIds);
+        // Summary rows are built on first read; build them now so every payment updates them
+        context.getBean(DashboardSummaryService.class).rebuildAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void recordBalances() {
+        payments.reset();
+        remainingBefore = entryBalance()[0];
+        dashboardBefore = dashboardRemaining();
+    }
+
+    @Benchmark
+    public PaymentDTO createPayment(PaymentCounters counters) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setEntryId(entryId);
+        request.setPaymentDate(LocalDate.now());
+        request.setPaymentAmount(PAYMENT);
+        request.setPayeePersonId(counters.payeeId);
+        PaymentDTO payment = paymentService.createPayment(request, null);
+        payments.increment();
+        counters.payments++;
+        return payment;
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkBalances() {
+        BigDecimal paid = PAYMENT.multiply(BigDecimal.valueOf(payments.sum()));
+        BigDecimal expected = remainingBefore.subtract(paid);
+
+        BigDecimal[] balance = entryBalance();
+        check("amount_remaining", balance[0], expected);
+        check("ledger_event sum", balance[1], expected);
+
+        Map<UUID, BigDecimal> dashboardAfter = dashboardRemaining();
+        for (UUID personId : personIds) {
+            check("user_dashboard_summary change of " + personId,
+                    dashboardAfter.get(personId).subtract(dashboardBefore.get(personId)), paid.negate());
+        }
+    }
+
+    private BigDecimal[] entryBalance() {
+        return jdbcTemplate.queryForObject(ENTRY_BALANCE_SQL, new MapSqlParameterSource("entryId", entryId),
+                (rs, rowNum) -> new BigDecimal[] {rs.getBigDecimal("amount_remaining"), rs.getBigDecimal("ledger_balance")});
+    }
+
+    private Map<UUID, BigDecimal> dashboardRemaining() {
+        Map<UUID, BigDecimal> remaining = new HashMap<>();
+        jdbcTemplate.query(DASHBOARD_REMAINING_SQL, new MapSqlParameterSource("personIds", personIds),
+                rs -> {
+                    remaining.put(rs.getObject("person_id", UUID.class), rs.getBigDecimal("total_remaining"));
+                });
+        return remaining;
+    }
+
+    // Anything but an exact match means a payment was lost (or counted twice)
+    private void check(String what, BigDecimal actual, BigDecimal expected) {
+        if (actual.compareTo(expected) != 0) {
+            long lost = actual.subtract(expected).divide(PAYMENT).longValue();
+            throw new IllegalStateException(what + " is " + actual + ", expected " + expected
+                    + " (" + lost + " of " + payments.sum() + " payments lost)");
+        }
+    }
+}
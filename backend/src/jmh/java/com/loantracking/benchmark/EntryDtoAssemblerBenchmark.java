@@ -0,0 +1,84 @@
+package com.loantracking.benchmark;
+
+import com.loantracking.dto.EntryDTO;
+import com.loantracking.model.Entry;
+import com.loantracking.repository.AttachmentRepository;
+import com.loantracking.repository.InstallmentTermRepository;
+import com.loantracking.repository.PaymentAllocationPaymentRepository;
+import com.loantracking.repository.PaymentAllocationRepository;
+import com.loantracking.repository.PaymentEntryRepository;
+import com.loantracking.service.EntryDtoAssembler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry-to-DTO conversion as used by GET /api/entries and GET /api/entries/{id}.
+ * Repositories are replaced with in-memory stubs so only the assembly work
+ * (grouping, note parsing, allocation status, DTO copying) is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntryDtoAssemblerBenchmark {
+
+    @Param({"50", "500"})
+    private int entryCount;
+
+    private EntryDtoAssembler assembler;
+    private List<Entry> entries;
+    private Entry installmentEntry;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(entryCount);
+        entries = data.entries;
+        // Entries cycle straight / installment / group, so index 1 has a plan with terms
+        installmentEntry = entries.get(1);
+
+        assembler = new EntryDtoAssembler();
+        ReflectionTestUtils.setField(assembler, "installmentTermRepository",
+                InMemoryRepositories.stub(InstallmentTermRepository.class, Map.of(
+                        "findByInstallmentIds", args -> BenchmarkData.select(data.termsByPlan, args[0]))));
+        ReflectionTestUtils.setField(assembler, "paymentEntryRepository",
+                InMemoryRepositories.stub(PaymentEntryRepository.class, Map.of(
+                        "findWithPaymentByEntryIds", args -> BenchmarkData.select(data.paymentEntriesByEntry, args[0]))));
+        ReflectionTestUtils.setField(assembler, "paymentAllocationRepository",
+                InMemoryRepositories.stub(PaymentAllocationRepository.class, Map.of(
+                        "findWithPersonByEntryIds", args -> BenchmarkData.select(data.allocationsByEntry, args[0]))));
+        ReflectionTestUtils.setField(assembler, "paymentAllocationPaymentRepository",
+                InMemoryRepositories.stub(PaymentAllocationPaymentRepository.class, Map.of(
+                        "summarizeByAllocationIds", args -> {
+                            List<Object[]> rows = new ArrayList<>();
+                            for (Object id : (Collection<?>) args[0]) {
+                                Object[] row = data.allocationSummaries.get(id);
+                                if (row != null) {
+                                    rows.add(row);
+                                }
+                            }
+                            return rows;
+                        })));
+        ReflectionTestUtils.setField(assembler, "attachmentRepository",
+                InMemoryRepositories.stub(AttachmentRepository.class, Map.of(
+                        "findEntryIdsWithAttachments", args -> BenchmarkData.retain(data.entryIdsWithProof, args[0]),
+                        "findPaymentIdsWithAttachments", args -> BenchmarkData.retain(data.paymentIdsWithProof, args[0]))));
+    }
+
+    @Benchmark
+    public List<EntryDTO> toDTOs() {
+        return assembler.toDTOs(entries);
+    }
+
+    @Benchmark
+    public EntryDTO toDTO() {
+        return assembler.toDTO(installmentEntry);
+    }
+}
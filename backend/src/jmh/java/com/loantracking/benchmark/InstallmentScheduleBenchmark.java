@@ -0,0 +1,53 @@
+package com.loantracking.benchmark;
+
+import com.loantracking.model.PaymentFrequency;
+import com.loantracking.util.InstallmentSchedule;
+import com.loantracking.util.InstallmentSchedule.ScheduleRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Due-date generation for a full installment schedule, as done when an
+ * installment entry is created or its terms are regenerated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstallmentScheduleBenchmark {
+
+    @Param({"MONTHLY", "WEEKLY"})
+    private PaymentFrequency frequency;
+
+    // Empty string stands for "no preferred day" (JMH params cannot be null)
+    @Param({"", "15", "FRIDAY"})
+    private String paymentFrequencyDay;
+
+    @Param({"12"})
+    private int paymentTerms;
+
+    private LocalDate startDate;
+    private String day;
+
+    @Setup
+    public void setUp() {
+        startDate = LocalDate.of(2024, 1, 31);
+        day = paymentFrequencyDay.isEmpty() ? null : paymentFrequencyDay;
+    }
+
+    @Benchmark
+    public void generateDueDates(Blackhole blackhole) {
+        ScheduleRule rule = InstallmentSchedule.rule(frequency, day);
+        LocalDate dueDate = rule.firstDueDate(startDate);
+        for (int term = 1; term <= paymentTerms; term++) {
+            blackhole.consume(dueDate);
+            dueDate = rule.nextDueDate(dueDate);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.loantracking.benchmark;
+
+import com.loantracking.model.Group;
+import com.loantracking.model.Person;
+import com.loantracking.util.ReferenceIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference id generation for person and group borrowers (runs on every entry create).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReferenceIdGeneratorBenchmark {
+
+    private Person borrower;
+    private Person lender;
+    private Group group;
+
+    @Setup
+    public void setUp() {
+        borrower = new Person();
+        borrower.setFullName("Dela Cruz, Juan, P");
+        lender = new Person();
+        lender.setFullName("Maria Clara Santos");
+        group = new Group();
+        group.setGroupName("Dorm Mates 2024");
+    }
+
+    @Benchmark
+    public String personBorrower() {
+        return ReferenceIdGenerator.generateReferenceId(borrower, lender);
+    }
+
+    @Benchmark
+    public String groupBorrower() {
+        return ReferenceIdGenerator.generateReferenceId(group, lender);
+    }
+}
@@ -0,0 +1,30 @@
+package com.loantracking.config;
+
+import com.loantracking.service.CurrentUserResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Resolves (and on first use creates) the current user before a read request's handler runs,
+ * while no transaction holds a connection. Services then find the id memoized on the request, so a
+ * read-only transaction never needs a second connection to create the person. Write requests
+ * resolve inside their own read-write transaction instead (and may be creating that very person).
+ */
+@Component
+public class CurrentUserInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private CurrentUserResolver currentUserResolver;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            currentUserResolver.currentPersonId();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.loantracking.config;
+
+import com.loantracking.service.InstallmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks lapsed installment terms DELINQUENT and applies their late fees once a day, shortly after
+ * midnight, so reading an entry never has to. Also runs once at startup to catch up on a night
+ * the application was asleep. Instances that find the sweep already running skip it.
+ */
+@Component
+public class DelinquencySweepJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(DelinquencySweepJob.class);
+    
+    @Autowired
+    private InstallmentService installmentService;
+    
+    @Scheduled(cron = "${app.installments.delinquency-sweep-cron:0 5 0 * * *}")
+    public void sweep() {
+        int marked = installmentService.sweepDelinquentTerms();
+        if (marked > 0) {
+            log.info("Marked {} lapsed installment terms delinquent", marked);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void sweepOnStartup() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.error("Startup delinquency sweep failed; it runs again after midnight", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.loantracking.config;
+
+import com.loantracking.service.LedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives entries created before the ledger existed their ledger history once the application is up.
+ * Each batch runs in its own transaction and skips entries other instances are working on.
+ */
+@Component
+public class LedgerBackfillInitializer {
+    
+    private static final Logger log = LoggerFactory.getLogger(LedgerBackfillInitializer.class);
+    
+    @Autowired
+    private LedgerService ledgerService;
+    
+    @Value("${app.ledger.backfill-batch-size:100}")
+    private int batchSize;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void backfillLedger() {
+        try {
+            int total = 0;
+            int backfilled;
+            do {
+                backfilled = ledgerService.backfill(batchSize);
+                total += backfilled;
+            } while (backfilled == batchSize);
+            if (total > 0) {
+                log.info("Backfilled ledger history for {} entries", total);
+            }
+        } catch (Exception e) {
+            log.error("Ledger backfill stopped; it will resume on the next start", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.loantracking.config;
+
+import com.loantracking.metrics.RequestStatisticsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RequestStatisticsInterceptor requestStatisticsInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Per-request Hibernate statement/entity/collection counts for the REST API
+        registry.addInterceptor(requestStatisticsInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -2,6 +2,8 @@ package com.loantracking.config;
 
 import com.loantracking.model.Person;
 import com.loantracking.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
@@ -12,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
 @Component
 public class UserInitializer {
     
+    private static final Logger log = LoggerFactory.getLogger(UserInitializer.class);
+    
     @Autowired
     private PersonRepository personRepository;
     
@@ -34,7 +38,7 @@ public class UserInitializer {
                 return; // Success, exit
             } catch (Exception e) {
                 retryCount++;
-                System.err.println("Warning: Failed to initialize parent user (attempt " + retryCount + "/" + maxRetries + "): " + e.getMessage());
+                log.warn("Failed to initialize parent user (attempt {}/{}): {}", retryCount, maxRetries, e.getMessage());
                 if (retryCount < maxRetries) {
                     try {
                         Thread.sleep(3000); // Wait 3 seconds before retry
@@ -43,8 +47,7 @@ public class UserInitializer {
                         return;
                     }
                 } else {
-                    System.err.println("Error: Could not initialize parent user after " + maxRetries + " attempts. Application will continue without initialization.");
-                    e.printStackTrace();
+                    log.error("Could not initialize parent user after {} attempts. Application will continue without initialization.", maxRetries, e);
                 }
             }
         }
@@ -2,9 +2,15 @@ package com.loantracking.controller;
 
 import com.loantracking.dto.DashboardSummaryDTO;
 import com.loantracking.service.DashboardService;
+import com.loantracking.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -14,8 +20,25 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
     
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    
     @GetMapping("/summary")
-    public ResponseEntity<DashboardSummaryDTO> getDashboardSummary() {
-        return ResponseEntity.ok(dashboardService.getDashboardSummary());
+    public ResponseEntity<DashboardSummaryDTO> getDashboardSummary(WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.dashboardETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy("X-Selected-User-Name")
+                .body(dashboardService.getDashboardSummary());
+    }
+    
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDashboardSummaries() {
+        int rebuiltCount = dashboardService.rebuildSummaries();
+        Map<String, Object> response = new HashMap<>();
+        response.put("rebuiltCount", rebuiltCount);
+        return ResponseEntity.ok(response);
     }
 }
@@ -1,15 +1,26 @@
 package com.loantracking.controller;
 
 import com.loantracking.dto.CreateEntryRequest;
+import com.loantracking.dto.EntryBalanceDTO;
 import com.loantracking.dto.EntryDTO;
+import com.loantracking.dto.EntryPageDTO;
+import com.loantracking.model.PaymentStatus;
+import com.loantracking.model.TransactionType;
 import com.loantracking.service.EntryService;
+import com.loantracking.service.ResourceVersionService;
+import com.loantracking.storage.ProofSize;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,14 +33,59 @@ public class EntryController {
     @Autowired
     private EntryService entryService;
     
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    
     @GetMapping
-    public ResponseEntity<List<EntryDTO>> getAllEntries() {
-        return ResponseEntity.ok(entryService.getAllEntries());
+    public ResponseEntity<List<EntryDTO>> getAllEntries(WebRequest request) {
+        // 304 when nothing in the user's entries changed - skips loading and DTO assembly
+        if (request.checkNotModified(resourceVersionService.entriesETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy("X-Selected-User-Name")
+                .body(entryService.getAllEntries());
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<EntryPageDTO> getEntryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) TransactionType type) {
+        return ResponseEntity.ok(entryService.getEntryPage(cursor, size, status, type));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<EntryDTO> getEntryById(@PathVariable UUID id) {
-        return ResponseEntity.ok(entryService.getEntryById(id));
+    public ResponseEntity<EntryDTO> getEntryById(@PathVariable UUID id, WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.entryETag(id))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy("X-Selected-User-Name")
+                .body(entryService.getEntryById(id));
+    }
+    
+    /**
+     * Balance from the entry's ledger as of a date (default today).
+     */
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<EntryBalanceDTO> getEntryBalance(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(entryService.getBalanceAsOf(id, asOf));
+    }
+    
+    /**
+     * Streams the proof file; supports Range requests and If-None-Match.
+     * size=thumb or size=preview returns a downscaled JPEG of an image proof once it has been generated.
+     */
+    @GetMapping("/{id}/proof")
+    public ResponseEntity<Resource> getEntryProof(@PathVariable UUID id,
+            @RequestParam(defaultValue = "original") String size, WebRequest request) {
+        return ProofResponses.of(entryService.getEntryProof(id, ProofSize.parse(size)), request);
     }
     
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -0,0 +1,48 @@
+package com.loantracking.controller;
+
+import com.loantracking.service.AccessContextService;
+import com.loantracking.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AccessContextService accessContextService;
+
+    @GetMapping("/entries")
+    public ResponseEntity<StreamingResponseBody> exportEntries(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        // Resolve the user on the request thread; the body is written on an async thread
+        UUID personId = accessContextService.current().getPersonId();
+        StreamingResponseBody body = out -> exportService.writeEntries(personId, exportFormat, out);
+        return streamed("entries", exportFormat, body);
+    }
+
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        UUID personId = accessContextService.current().getPersonId();
+        StreamingResponseBody body = out -> exportService.writePayments(personId, exportFormat, out);
+        return streamed("payments", exportFormat, body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamed(String name, ExportService.Format format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+}
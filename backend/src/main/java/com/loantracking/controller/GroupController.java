@@ -2,10 +2,13 @@ package com.loantracking.controller;
 
 import com.loantracking.dto.GroupDTO;
 import com.loantracking.service.GroupService;
+import com.loantracking.service.ResourceVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -18,9 +21,17 @@ public class GroupController {
     @Autowired
     private GroupService groupService;
     
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+    
     @GetMapping
-    public ResponseEntity<List<GroupDTO>> getAllGroups() {
-        return ResponseEntity.ok(groupService.getAllGroups());
+    public ResponseEntity<List<GroupDTO>> getAllGroups(WebRequest request) {
+        if (request.checkNotModified(resourceVersionService.groupsETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(groupService.getAllGroups());
     }
     
     @GetMapping("/{id}")
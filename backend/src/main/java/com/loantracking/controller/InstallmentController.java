@@ -1,13 +1,19 @@
 package com.loantracking.controller;
 
+import com.loantracking.dto.InstallmentSimulationDTO;
 import com.loantracking.dto.InstallmentTermDTO;
+import com.loantracking.dto.SimulateInstallmentRequest;
+import com.loantracking.dto.UpcomingDueDayDTO;
 import com.loantracking.model.InstallmentStatus;
 import com.loantracking.service.InstallmentService;
+import com.loantracking.service.InstallmentSimulationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,6 +25,9 @@ public class InstallmentController {
     @Autowired
     private InstallmentService installmentService;
     
+    @Autowired
+    private InstallmentSimulationService installmentSimulationService;
+    
     @PostMapping("/terms/{termId}/skip")
     public ResponseEntity<InstallmentTermDTO> skipTerm(@PathVariable UUID termId) {
         return ResponseEntity.ok(installmentService.skipTerm(termId));
@@ -43,10 +52,21 @@ public class InstallmentController {
         return ResponseEntity.ok(installmentService.updateTermStatus(termId, status));
     }
     
+    @GetMapping("/upcoming")
+    public ResponseEntity<List<UpcomingDueDayDTO>> getUpcomingDues(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(installmentService.getUpcomingDues(days));
+    }
+    
+    @PostMapping("/simulate")
+    public ResponseEntity<List<InstallmentSimulationDTO>> simulate(@RequestBody List<SimulateInstallmentRequest> requests) {
+        return ResponseEntity.ok(installmentSimulationService.simulate(requests));
+    }
+    
     @PostMapping("/update-delinquent")
-    public ResponseEntity<Void> updateDelinquentTerms() {
-        installmentService.updateDelinquentTerms();
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Map<String, Object>> updateDelinquentTerms() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("updatedCount", installmentService.updateDelinquentTerms());
+        return ResponseEntity.ok(response);
     }
 }
 
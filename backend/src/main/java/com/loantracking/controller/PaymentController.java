@@ -1,17 +1,23 @@
 package com.loantracking.controller;
 
+import com.loantracking.dto.BatchPaymentResultDTO;
 import com.loantracking.dto.CreatePaymentRequest;
 import com.loantracking.dto.PaymentDTO;
+import com.loantracking.dto.PaymentPageDTO;
 import com.loantracking.service.PaymentService;
+import com.loantracking.storage.ProofSize;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +36,17 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getAllPayments());
     }
     
+    @GetMapping("/history")
+    public ResponseEntity<PaymentPageDTO> getPaymentHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount) {
+        return ResponseEntity.ok(paymentService.getPaymentHistory(cursor, size, from, to, minAmount, maxAmount));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<PaymentDTO> getPaymentById(@PathVariable UUID id) {
         return ResponseEntity.ok(paymentService.getPaymentById(id));
@@ -51,6 +68,15 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(paymentService.createPayment(request, null));
     }
     
+    /**
+     * Creates many payments at once. Items that fail validation are reported per index
+     * and do not prevent the others from being created.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPaymentResultDTO> createPayments(@RequestBody List<CreatePaymentRequest> requests) {
+        return ResponseEntity.ok(paymentService.createPayments(requests));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<PaymentDTO> updatePayment(@PathVariable UUID id, @RequestBody CreatePaymentRequest request) {
         return ResponseEntity.ok(paymentService.updatePayment(id, request));
@@ -62,19 +88,14 @@ public class PaymentController {
         return ResponseEntity.noContent().build();
     }
     
+    /**
+     * Streams the proof file; supports Range requests and If-None-Match.
+     * size=thumb or size=preview returns a downscaled JPEG of an image proof once it has been generated.
+     */
     @GetMapping("/{id}/proof")
-    public ResponseEntity<byte[]> getPaymentProof(@PathVariable UUID id) {
-        PaymentService.PaymentProofInfo proofInfo = paymentService.getPaymentProofWithInfo(id);
-        MediaType mediaType;
-        try {
-            mediaType = MediaType.parseMediaType(proofInfo.getContentType());
-        } catch (Exception e) {
-            mediaType = MediaType.IMAGE_JPEG; // Default fallback
-        }
-        return ResponseEntity.ok()
-                .contentType(mediaType)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
-                .body(proofInfo.getProof());
+    public ResponseEntity<Resource> getPaymentProof(@PathVariable UUID id,
+            @RequestParam(defaultValue = "original") String size, WebRequest request) {
+        return ProofResponses.of(paymentService.getPaymentProofWithInfo(id, ProofSize.parse(size)), request);
     }
     
     @GetMapping("/total-paid-penalties")
@@ -0,0 +1,52 @@
+package com.loantracking.controller;
+
+import com.loantracking.dto.ProofFileDTO;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+/**
+ * Builds proof download responses. The body is a Resource, so Spring streams it and
+ * answers Range requests with 206 Partial Content. Proofs never change once uploaded,
+ * so they are cached as immutable and revalidated by ETag. A derivative size that is not
+ * generated yet is answered with the original and must be revalidated.
+ */
+final class ProofResponses {
+
+    private static final CacheControl PROOF_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+
+    // A thumbnail URL answered with the original must be revalidated, or the browser keeps the original
+    private static final CacheControl FALLBACK_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private ProofResponses() {
+    }
+
+    /**
+     * @return the proof response, or null when the client's copy is current (304 already written)
+     */
+    static ResponseEntity<Resource> of(ProofFileDTO proof, WebRequest request) {
+        if (request.checkNotModified(proof.getETag())) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(proof.getContentType());
+        } catch (Exception e) {
+            mediaType = MediaType.IMAGE_JPEG; // Default fallback
+        }
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .contentLength(proof.getContentLength())
+                .eTag(proof.getETag())
+                .cacheControl(proof.isImmutable() ? PROOF_CACHE_CONTROL : FALLBACK_CACHE_CONTROL)
+                .varyBy("X-Selected-User-Name")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
+                .body(proof.getContent());
+    }
+}
@@ -0,0 +1,15 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentItemDTO {
+    private int index; // Position of the item in the request array
+    private String status; // CREATED or FAILED
+    private PaymentDTO payment; // null when the item failed
+    private String error; // null when the item was created
+}
@@ -0,0 +1,16 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentResultDTO {
+    private int createdCount;
+    private int failedCount;
+    private List<BatchPaymentItemDTO> results; // One per request item, in request order
+}
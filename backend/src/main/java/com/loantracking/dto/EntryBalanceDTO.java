@@ -0,0 +1,18 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryBalanceDTO {
+    private UUID entryId;
+    private LocalDate asOf;
+    private BigDecimal balance; // Sum of the ledger events effective on or before asOf
+}
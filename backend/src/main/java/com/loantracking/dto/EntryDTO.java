@@ -35,6 +35,7 @@ public class EntryDTO {
     private String notes;
     private String paymentNotes;
     private String referenceId;
+    private boolean hasProof; // Indicates if entry has a receipt/proof attachment
     private List<PaymentDTO> payments;
     private InstallmentPlanDTO installmentPlan;
     private List<PaymentAllocationDTO> paymentAllocations;
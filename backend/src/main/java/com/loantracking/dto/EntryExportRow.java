@@ -0,0 +1,41 @@
+package com.loantracking.dto;
+
+import com.loantracking.model.PaymentMethod;
+import com.loantracking.model.PaymentStatus;
+import com.loantracking.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat entry row for /api/export/entries, selected directly by JPQL (no entity loading).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryExportRow {
+    private UUID entryId;
+    private String referenceId;
+    private String entryName;
+    private String description;
+    private TransactionType transactionType;
+    private PaymentStatus status;
+    private LocalDate dateBorrowed;
+    private LocalDate dateFullyPaid;
+    private BigDecimal amountBorrowed;
+    private BigDecimal amountRemaining;
+    private PaymentMethod paymentMethod;
+    private UUID lenderPersonId;
+    private String lenderPersonName;
+    private UUID borrowerPersonId;
+    private String borrowerPersonName;
+    private UUID borrowerGroupId;
+    private String borrowerGroupName;
+    private String notes;
+    private LocalDateTime createdAt;
+}
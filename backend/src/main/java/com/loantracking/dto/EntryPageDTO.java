@@ -0,0 +1,15 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryPageDTO {
+    private List<EntryDTO> entries;
+    private String nextCursor; // null when there are no more entries
+}
@@ -0,0 +1,24 @@
+package com.loantracking.dto;
+
+import com.loantracking.model.PaymentFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstallmentSimulationDTO {
+    private int index; // Position of the plan in the request array
+    private String error; // null when the plan could be simulated; the other fields are then unset
+    private PaymentFrequency paymentFrequency;
+    private String paymentFrequencyDay; // Canonical form, null when the schedule has no preferred day
+    private BigDecimal amountPerTerm; // As an entry created with these values would store it
+    private BigDecimal roundingRemainder; // amountBorrowed - amountPerTerm * paymentTerms, added to the last term
+    private BigDecimal lateFeePerTerm; // Penalty for skipping a term or letting it lapse
+    private BigDecimal maxPenaltyExposure; // lateFeePerTerm for every term
+    private List<SimulatedTermDTO> terms;
+}
@@ -1,5 +1,6 @@
 package com.loantracking.dto;
 
+import com.loantracking.model.PaymentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,6 +23,10 @@ public class PaymentDTO {
     private UUID entryId;
     private String entryName;
     private String entryReferenceId;
+    private String lenderPersonName;
+    private PaymentStatus entryStatus;
+    private BigDecimal entryAmountBorrowed;
+    private BigDecimal entryAmountRemaining;
     private boolean hasProof; // Indicates if payment has proof/attachment
 }
 
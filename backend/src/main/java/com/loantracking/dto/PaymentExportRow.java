@@ -0,0 +1,31 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat payment row for /api/export/payments, one per payment-entry link,
+ * selected directly by JPQL (no entity loading).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentExportRow {
+    private UUID paymentId;
+    private LocalDate paymentDate;
+    private BigDecimal paymentAmount;
+    private BigDecimal changeAmount;
+    private UUID payeePersonId;
+    private String payeePersonName;
+    private String notes;
+    private UUID entryId;
+    private String entryName;
+    private String entryReferenceId;
+    private LocalDateTime createdAt;
+}
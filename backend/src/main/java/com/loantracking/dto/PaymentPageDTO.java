@@ -0,0 +1,18 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPageDTO {
+    private List<PaymentDTO> payments;
+    private String nextCursor; // null when there are no more payments
+    private Long totalCount; // Matching payments across all pages; only set on the first page
+    private BigDecimal totalAmount; // Sum of matching payment amounts; only set on the first page
+}
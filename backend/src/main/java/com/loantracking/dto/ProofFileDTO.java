@@ -0,0 +1,18 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.io.Resource;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProofFileDTO {
+    private Resource content; // Read lazily while the response is written
+    private long contentLength;
+    private String contentType; // Defaults to image/jpeg when the upload had none
+    private String originalFilename;
+    private String eTag; // Attachments never change once uploaded, so the attachment id is a strong validator
+    private boolean immutable; // False when a derivative was asked for but the original is served until it exists
+}
@@ -0,0 +1,19 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulateInstallmentRequest {
+    private BigDecimal amountBorrowed;
+    private LocalDate startDate;
+    private String paymentFrequency; // WEEKLY or MONTHLY
+    private String paymentFrequencyDay; // Same values as CreateEntryRequest.paymentFrequencyDay
+    private Integer paymentTerms;
+}
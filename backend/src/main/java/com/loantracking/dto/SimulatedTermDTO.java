@@ -0,0 +1,17 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulatedTermDTO {
+    private int termNumber;
+    private LocalDate dueDate;
+    private BigDecimal amountDue; // amountPerTerm; the last term also carries the rounding remainder
+}
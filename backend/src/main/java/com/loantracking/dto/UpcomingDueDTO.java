@@ -0,0 +1,23 @@
+package com.loantracking.dto;
+
+import com.loantracking.model.InstallmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpcomingDueDTO {
+    private UUID termId;
+    private UUID entryId;
+    private String entryName;
+    private String referenceId;
+    private Integer termNumber;
+    private InstallmentStatus termStatus;
+    private BigDecimal amountDue; // The plan's amount per term
+    private String role; // "LENDER" or "BORROWER", as in EntryDTO.userRole
+}
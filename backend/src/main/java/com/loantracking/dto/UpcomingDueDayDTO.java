@@ -0,0 +1,18 @@
+package com.loantracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpcomingDueDayDTO {
+    private LocalDate dueDate;
+    private BigDecimal totalDue;
+    private List<UpcomingDueDTO> terms;
+}
@@ -0,0 +1,57 @@
+package com.loantracking.metrics;
+
+/**
+ * Hibernate work done on behalf of the current HTTP request.
+ * Bound to the request thread by {@link RequestStatisticsInterceptor} and fed by
+ * {@link RequestStatisticsFactory}; work done on other threads (async exports,
+ * scheduled jobs) is not attributed to any request.
+ */
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entitiesLoaded;
+    private long collectionsFetched;
+
+    static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void collectionFetched() {
+        collectionsFetched++;
+    }
+
+    /** JDBC statements prepared by Hibernate (JPQL, native and lazy-load queries, inserts, updates). */
+    public long getStatements() {
+        return statements;
+    }
+
+    /** Entity instances materialized from result sets. */
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    /** Lazy collections initialized with their own select (the usual N+1 signature). */
+    public long getCollectionsFetched() {
+        return collectionsFetched;
+    }
+}
@@ -0,0 +1,53 @@
+package com.loantracking.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hibernate statistics that keep the usual global counters (exported by Actuator as hibernate.*)
+ * and also attribute statements, entity loads and collection fetches to the current request.
+ * Registered with hibernate.stats.factory; only invoked while hibernate.generate_statistics is on.
+ */
+public class RequestStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new RequestAwareStatistics(sessionFactory);
+    }
+
+    private static class RequestAwareStatistics extends StatisticsImpl {
+
+        RequestAwareStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void prepareStatement() {
+            super.prepareStatement();
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.statementPrepared();
+            }
+        }
+
+        @Override
+        public void loadEntity(String entityName) {
+            super.loadEntity(entityName);
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.entityLoaded();
+            }
+        }
+
+        @Override
+        public void fetchCollection(String role) {
+            super.fetchCollection(role);
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                statistics.collectionFetched();
+            }
+        }
+    }
+}
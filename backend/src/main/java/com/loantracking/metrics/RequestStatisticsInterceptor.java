@@ -0,0 +1,71 @@
+package com.loantracking.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records per-request Hibernate work as distribution summaries tagged like http.server.requests
+ * (method, uri template, status), so endpoints with N+1 query patterns stand out:
+ * hibernate.request.statements, hibernate.request.entities.loaded, hibernate.request.collections.fetched.
+ * Each request is also logged at DEBUG under com.loantracking.metrics.
+ */
+@Component
+public class RequestStatisticsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestStatisticsInterceptor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestStatistics.begin();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses continue on another thread; nothing more is attributed to this request
+        RequestStatistics.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestStatistics statistics = RequestStatistics.current();
+        RequestStatistics.end();
+        if (statistics == null) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri, "status", String.valueOf(response.getStatus()));
+
+        record("hibernate.request.statements", "JDBC statements prepared by Hibernate per request", tags, statistics.getStatements());
+        record("hibernate.request.entities.loaded", "Entities loaded per request", tags, statistics.getEntitiesLoaded());
+        record("hibernate.request.collections.fetched", "Lazy collections fetched per request", tags, statistics.getCollectionsFetched());
+
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} -> {}: statements={}, entitiesLoaded={}, collectionsFetched={}",
+                    request.getMethod(), uri, response.getStatus(),
+                    statistics.getStatements(), statistics.getEntitiesLoaded(), statistics.getCollectionsFetched());
+        }
+    }
+
+    private void record(String name, String description, Tags tags, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -35,6 +35,11 @@ public class Attachment {
     @Column(name = "file_size")
     private Long fileSize;
 
+    // SHA-256 of the content; the bytes live in AttachmentStorage, shared by identical uploads
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Legacy in-database bytes, moved to AttachmentStorage by AttachmentService.migrateLegacyAttachments
     @Lob
     @Column(name = "file_data")
     private byte[] fileData;
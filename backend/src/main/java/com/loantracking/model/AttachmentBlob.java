@@ -0,0 +1,38 @@
+package com.loantracking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored attachment blob, keyed by the SHA-256 of its content, with the number of
+ * attachment rows that reference it. Rows are written with native SQL by AttachmentService
+ * (register on upload, recount and sweep in garbage collection); the entity defines the table.
+ */
+@Entity
+@Table(name = "attachment_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlob {
+    
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+    
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Last upload that referenced the blob; garbage collection waits a grace period after it
+    @Column(name = "last_referenced_at")
+    private LocalDateTime lastReferencedAt;
+}
@@ -71,8 +71,9 @@ public class Entry {
     @Column(name = "payment_notes", columnDefinition = "TEXT")
     private String paymentNotes;
     
-    @Column(name = "receipt_or_proof")
-    private byte[] receiptOrProof;
+    // Set when the stored balance disagreed with the ledger; cleared by the auto-complete repair
+    @Column(name = "needs_reconciliation", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean needsReconciliation;
     
     @Column(name = "reference_id", nullable = false, unique = true)
     private String referenceId;
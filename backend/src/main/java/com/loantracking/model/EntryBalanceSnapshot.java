@@ -0,0 +1,49 @@
+package com.loantracking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An entry's balance as of a date, so balances are read from the latest snapshot plus the
+ * few ledger events after it instead of the whole history. The balance covers the events up to
+ * last_event_id that are effective on or before as_of_date. Written with native SQL by LedgerService.
+ */
+@Entity
+@Table(name = "entry_balance_snapshot", indexes = {
+    @Index(name = "idx_entry_balance_snapshot_entry", columnList = "entry_id, as_of_date, last_event_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryBalanceSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entry_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Entry entry;
+    
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+    
+    @Column(name = "as_of_date", nullable = false)
+    private LocalDate asOfDate;
+    
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
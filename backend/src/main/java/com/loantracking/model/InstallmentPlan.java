@@ -40,6 +40,10 @@ public class InstallmentPlan {
     @Column(name = "amount_per_term", nullable = false, precision = 15, scale = 2)
     private BigDecimal amountPerTerm;
     
+    // "1".."28" for MONTHLY plans, a day name such as "FRIDAY" for WEEKLY plans
+    @Column(name = "payment_frequency_day", length = 20)
+    private String paymentFrequencyDay;
+    
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
@@ -13,6 +13,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "installment_term", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"installment_id", "term_number"})
+}, indexes = {
+    @Index(name = "idx_installment_term_due_date", columnList = "due_date"),
+    @Index(name = "idx_installment_term_status_due_date", columnList = "term_status, due_date")
 })
 @Data
 @NoArgsConstructor
@@ -20,7 +23,7 @@ import java.util.UUID;
 public class InstallmentTerm {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     @Column(name = "term_id")
     private UUID termId;
     
@@ -0,0 +1,61 @@
+package com.loantracking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One change to an entry's balance. The amounts of an entry's events add up to its
+ * amount_remaining. Rows are only ever inserted, with native SQL by LedgerService,
+ * while the entry is locked, so event ids increase per entry in the order the changes happened.
+ */
+@Entity
+@Table(name = "ledger_event", indexes = {
+    @Index(name = "idx_ledger_event_entry", columnList = "entry_id, event_id"),
+    @Index(name = "idx_ledger_event_entry_date", columnList = "entry_id, effective_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entry_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Entry entry;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private LedgerEventType eventType;
+    
+    // Signed change to the balance: principal and penalties add, payments and completion subtract
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    // Business date the change counts from (payment date, date borrowed); balances as of a date use it
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+    
+    // Not foreign keys: the ledger keeps its history when a payment or term is deleted
+    @Column(name = "payment_id")
+    private UUID paymentId;
+    
+    @Column(name = "term_id")
+    private UUID termId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
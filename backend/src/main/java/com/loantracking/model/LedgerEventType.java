@@ -0,0 +1,9 @@
+package com.loantracking.model;
+
+public enum LedgerEventType {
+    PRINCIPAL,
+    PAYMENT,
+    PENALTY,
+    ADJUSTMENT,
+    COMPLETION
+}
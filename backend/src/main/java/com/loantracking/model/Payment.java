@@ -36,9 +36,6 @@ public class Payment {
     @JoinColumn(name = "payee_person_id", nullable = false)
     private Person payeePerson;
     
-    @Column(name = "proof")
-    private byte[] proof;
-    
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
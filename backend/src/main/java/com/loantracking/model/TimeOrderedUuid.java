@@ -0,0 +1,19 @@
+package com.loantracking.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the id as a time-ordered UUID (version 7) in memory, so rows created together get
+ * increasing keys (sequential B-tree inserts) and can be sent in one JDBC batch.
+ * Use instead of {@code @GeneratedValue}.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
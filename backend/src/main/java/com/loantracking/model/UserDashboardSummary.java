@@ -0,0 +1,50 @@
+package com.loantracking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-user dashboard totals, kept up to date by DashboardSummaryService.
+ * Rows are written with native SQL (deltas and rebuilds); this entity is only read.
+ */
+@Entity
+@Table(name = "user_dashboard_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDashboardSummary {
+    
+    @Id
+    @Column(name = "person_id")
+    private UUID personId;
+    
+    @Column(name = "total_entries", nullable = false)
+    private int totalEntries;
+    
+    @Column(name = "unpaid_count", nullable = false)
+    private int unpaidCount;
+    
+    @Column(name = "partially_paid_count", nullable = false)
+    private int partiallyPaidCount;
+    
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+    
+    @Column(name = "total_borrowed", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalBorrowed;
+    
+    @Column(name = "total_remaining", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalRemaining;
+    
+    @Column(name = "total_paid_penalties", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalPaidPenalties;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -2,8 +2,11 @@ package com.loantracking.repository;
 
 import com.loantracking.model.Attachment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +14,15 @@ import java.util.UUID;
 public interface AttachmentRepository extends JpaRepository<Attachment, UUID> {
     List<Attachment> findByEntry_EntryId(UUID entryId);
     List<Attachment> findByPayment_PaymentId(UUID paymentId);
+    
+    // hasProof checks that never read file_data
+    boolean existsByPayment_PaymentId(UUID paymentId);
+    
+    @Query("SELECT DISTINCT a.entry.entryId FROM Attachment a WHERE a.entry.entryId IN :entryIds")
+    List<UUID> findEntryIdsWithAttachments(@Param("entryIds") Collection<UUID> entryIds);
+    
+    @Query("SELECT DISTINCT a.payment.paymentId FROM Attachment a WHERE a.payment.paymentId IN :paymentIds")
+    List<UUID> findPaymentIdsWithAttachments(@Param("paymentIds") Collection<UUID> paymentIds);
 }
 
 
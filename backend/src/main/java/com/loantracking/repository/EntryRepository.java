@@ -1,20 +1,38 @@
 package com.loantracking.repository;
 
+import com.loantracking.dto.EntryExportRow;
 import com.loantracking.model.Entry;
 import com.loantracking.model.TransactionType;
 import com.loantracking.model.PaymentStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface EntryRepository extends JpaRepository<Entry, UUID> {
+    
+    // Same rule as AccessContext.isRelated: for group borrowers the lender or a group member,
+    // otherwise the lender or the person borrower but not both
+    String RELATED_TO_USER =
+            "((e.borrowerGroup IS NOT NULL AND (e.lenderPerson.personId = :personId " +
+            "   OR e.borrowerGroup.groupId IN (SELECT gm.group.groupId FROM GroupMember gm WHERE gm.person.personId = :personId))) " +
+            "OR (e.borrowerGroup IS NULL AND (e.lenderPerson.personId = :personId OR e.borrowerPerson.personId = :personId) " +
+            "   AND NOT (e.lenderPerson.personId = :personId AND e.borrowerPerson IS NOT NULL " +
+            "   AND e.borrowerPerson.personId = :personId)))";
+    
     Optional<Entry> findByReferenceId(String referenceId);
     List<Entry> findByBorrowerPerson_PersonId(UUID personId);
     List<Entry> findByBorrowerGroup_GroupId(UUID groupId);
@@ -28,30 +46,64 @@ public interface EntryRepository extends JpaRepository<Entry, UUID> {
     
     // Optimized queries for dashboard - filter at database level
     @Query("SELECT e FROM Entry e LEFT JOIN FETCH e.lenderPerson LEFT JOIN FETCH e.borrowerPerson LEFT JOIN FETCH e.borrowerGroup " +
-           "WHERE e.lenderPerson.personId = :personId OR e.borrowerPerson.personId = :personId " +
-           "OR e.borrowerGroup.groupId IN (SELECT gm.group.groupId FROM GroupMember gm WHERE gm.person.personId = :personId) " +
+           "LEFT JOIN FETCH e.installmentPlan " +
+           "WHERE " + RELATED_TO_USER + " " +
            "ORDER BY e.createdAt DESC")
     List<Entry> findEntriesForUser(@Param("personId") UUID personId);
     
     // Get recent entries with limit (for dashboard)
     @Query("SELECT e FROM Entry e LEFT JOIN FETCH e.lenderPerson LEFT JOIN FETCH e.borrowerPerson LEFT JOIN FETCH e.borrowerGroup " +
-           "WHERE e.lenderPerson.personId = :personId OR e.borrowerPerson.personId = :personId " +
-           "OR e.borrowerGroup.groupId IN (SELECT gm.group.groupId FROM GroupMember gm WHERE gm.person.personId = :personId) " +
+           "LEFT JOIN FETCH e.installmentPlan " +
+           "WHERE " + RELATED_TO_USER + " " +
            "ORDER BY e.createdAt DESC")
     List<Entry> findRecentEntriesForUser(@Param("personId") UUID personId, Pageable pageable);
+
+    // First keyset page of a user's entries ordered by (created_at, entry_id), with optional status/type filters
+    @Query("SELECT e FROM Entry e LEFT JOIN FETCH e.lenderPerson LEFT JOIN FETCH e.borrowerPerson LEFT JOIN FETCH e.borrowerGroup " +
+           "LEFT JOIN FETCH e.installmentPlan " +
+           "WHERE " + RELATED_TO_USER + " " +
+           "AND (:status IS NULL OR e.status = :status) " +
+           "AND (:transactionType IS NULL OR e.transactionType = :transactionType) " +
+           "ORDER BY e.createdAt DESC, e.entryId DESC")
+    List<Entry> findEntryPageForUser(@Param("personId") UUID personId,
+                                     @Param("status") PaymentStatus status,
+                                     @Param("transactionType") TransactionType transactionType,
+                                     Pageable pageable);
+    
+    // Next keyset page: entries strictly after the (created_at, entry_id) of the previous page's last row
+    @Query("SELECT e FROM Entry e LEFT JOIN FETCH e.lenderPerson LEFT JOIN FETCH e.borrowerPerson LEFT JOIN FETCH e.borrowerGroup " +
+           "LEFT JOIN FETCH e.installmentPlan " +
+           "WHERE " + RELATED_TO_USER + " " +
+           "AND (:status IS NULL OR e.status = :status) " +
+           "AND (:transactionType IS NULL OR e.transactionType = :transactionType) " +
+           "AND (e.createdAt < :cursorCreatedAt OR (e.createdAt = :cursorCreatedAt AND e.entryId < :cursorEntryId)) " +
+           "ORDER BY e.createdAt DESC, e.entryId DESC")
+    List<Entry> findEntryPageForUserAfter(@Param("personId") UUID personId,
+                                          @Param("status") PaymentStatus status,
+                                          @Param("transactionType") TransactionType transactionType,
+                                          @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorEntryId") UUID cursorEntryId,
+                                          Pageable pageable);
+    
+    // Forward-only export of a user's entries as flat rows; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.loantracking.dto.EntryExportRow(e.entryId, e.referenceId, e.entryName, e.description, " +
+           "e.transactionType, e.status, e.dateBorrowed, e.dateFullyPaid, e.amountBorrowed, e.amountRemaining, e.paymentMethod, " +
+           "lp.personId, lp.fullName, bp.personId, bp.fullName, bg.groupId, bg.groupName, e.notes, e.createdAt) " +
+           "FROM Entry e LEFT JOIN e.lenderPerson lp LEFT JOIN e.borrowerPerson bp LEFT JOIN e.borrowerGroup bg " +
+           "WHERE " + RELATED_TO_USER + " " +
+           "ORDER BY e.createdAt, e.entryId")
+    Stream<EntryExportRow> streamExportRowsForUser(@Param("personId") UUID personId);
+    
+    // Entries flagged by the ledger balance check, in entry_id order for locking (partial index on needs_reconciliation)
+    @Query("SELECT e.entryId FROM Entry e WHERE e.needsReconciliation = true " +
+           "AND " + RELATED_TO_USER + " " +
+           "ORDER BY e.entryId")
+    List<UUID> findEntryIdsNeedingReconciliationForUser(@Param("personId") UUID personId);
     
-    // Count entries by status for a user (efficient aggregation)
-    @Query("SELECT e.status, COUNT(e) FROM Entry e " +
-           "WHERE e.lenderPerson.personId = :personId OR e.borrowerPerson.personId = :personId " +
-           "OR e.borrowerGroup.groupId IN (SELECT gm.group.groupId FROM GroupMember gm WHERE gm.person.personId = :personId) " +
-           "GROUP BY e.status")
-    List<Object[]> countEntriesByStatusForUser(@Param("personId") UUID personId);
-    
-    // Sum amounts for a user (efficient aggregation)
-    @Query("SELECT COALESCE(SUM(e.amountBorrowed), 0), COALESCE(SUM(e.amountRemaining), 0) FROM Entry e " +
-           "WHERE e.lenderPerson.personId = :personId OR e.borrowerPerson.personId = :personId " +
-           "OR EXISTS (SELECT 1 FROM GroupMember gm WHERE gm.group.groupId = e.borrowerGroup.groupId AND gm.person.personId = :personId)")
-    Object[] sumAmountsForUser(@Param("personId") UUID personId);
+    // Ids of entries borrowed by a group (their audience changes with the group's members)
+    @Query("SELECT e.entryId FROM Entry e WHERE e.borrowerGroup.groupId = :groupId")
+    List<UUID> findEntryIdsByBorrowerGroupId(@Param("groupId") UUID groupId);
 }
 
 
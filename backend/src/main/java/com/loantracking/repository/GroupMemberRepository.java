@@ -2,6 +2,8 @@ package com.loantracking.repository;
 
 import com.loantracking.model.GroupMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +14,10 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, UUID>
     List<GroupMember> findByGroup_GroupId(UUID groupId);
     List<GroupMember> findByPerson_PersonId(UUID personId);
     boolean existsByGroup_GroupIdAndPerson_PersonId(UUID groupId, UUID personId);
+    
+    // Ids of every group the person belongs to, used to answer membership checks in memory
+    @Query("SELECT gm.group.groupId FROM GroupMember gm WHERE gm.person.personId = :personId")
+    List<UUID> findGroupIdsByPersonId(@Param("personId") UUID personId);
 }
 
 
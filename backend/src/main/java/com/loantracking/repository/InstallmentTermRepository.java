@@ -3,9 +3,13 @@ package com.loantracking.repository;
 import com.loantracking.model.InstallmentTerm;
 import com.loantracking.model.InstallmentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Collection;
 import java.util.UUID;
 
 @Repository
@@ -13,6 +17,22 @@ public interface InstallmentTermRepository extends JpaRepository<InstallmentTerm
     List<InstallmentTerm> findByInstallmentPlan_InstallmentId(UUID installmentId);
     List<InstallmentTerm> findByTermStatus(InstallmentStatus status);
     List<InstallmentTerm> findByInstallmentPlan_InstallmentIdAndTermStatus(UUID installmentId, InstallmentStatus status);
+    
+    // Batched lookup used when assembling many entry DTOs at once
+    @Query("SELECT t FROM InstallmentTerm t WHERE t.installmentPlan.installmentId IN :installmentIds ORDER BY t.termNumber")
+    List<InstallmentTerm> findByInstallmentIds(@Param("installmentIds") Collection<UUID> installmentIds);
+    
+    // Penalties paid on the user's installment entries: every penalty once the entry is PAID,
+    // otherwise only those on PAID terms (the same rule the dashboard summary uses)
+    @Query("SELECT COALESCE(SUM(t.penaltyApplied), 0) FROM InstallmentTerm t " +
+           "JOIN t.installmentPlan p JOIN p.entry e " +
+           "WHERE e.transactionType = com.loantracking.model.TransactionType.INSTALLMENT_EXPENSE " +
+           "AND t.penaltyApplied > 0 " +
+           "AND (e.status = com.loantracking.model.PaymentStatus.PAID " +
+           "OR t.termStatus = com.loantracking.model.InstallmentStatus.PAID) " +
+           "AND (e.lenderPerson.personId = :personId OR e.borrowerPerson.personId = :personId " +
+           "OR e.borrowerGroup.groupId IN (SELECT gm.group.groupId FROM GroupMember gm WHERE gm.person.personId = :personId))")
+    BigDecimal sumPaidPenaltiesForUser(@Param("personId") UUID personId);
 }
 
 
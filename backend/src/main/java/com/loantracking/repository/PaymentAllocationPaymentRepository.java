@@ -2,9 +2,12 @@ package com.loantracking.repository;
 
 import com.loantracking.model.PaymentAllocationPayment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.UUID;
 
 @Repository
@@ -12,5 +15,10 @@ public interface PaymentAllocationPaymentRepository extends JpaRepository<Paymen
     List<PaymentAllocationPayment> findByAllocation_AllocationId(UUID allocationId);
     List<PaymentAllocationPayment> findByPayment_PaymentId(UUID paymentId);
     boolean existsByPayment_PaymentIdAndAllocation_AllocationId(UUID paymentId, UUID allocationId);
+    
+    // Linked payment count and total per allocation: [allocationId, count, sum(amount)]
+    @Query("SELECT pap.allocation.allocationId, COUNT(pap), COALESCE(SUM(pap.amount), 0) FROM PaymentAllocationPayment pap " +
+           "WHERE pap.allocation.allocationId IN :allocationIds GROUP BY pap.allocation.allocationId")
+    List<Object[]> summarizeByAllocationIds(@Param("allocationIds") Collection<UUID> allocationIds);
 }
 
@@ -2,14 +2,21 @@ package com.loantracking.repository;
 
 import com.loantracking.model.PaymentAllocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.UUID;
 
 @Repository
 public interface PaymentAllocationRepository extends JpaRepository<PaymentAllocation, UUID> {
     List<PaymentAllocation> findByEntry_EntryId(UUID entryId);
     List<PaymentAllocation> findByPerson_PersonId(UUID personId);
+    
+    // Batched lookup with the payee person fetched in the same query
+    @Query("SELECT a FROM PaymentAllocation a JOIN FETCH a.person WHERE a.entry.entryId IN :entryIds")
+    List<PaymentAllocation> findWithPersonByEntryIds(@Param("entryIds") Collection<UUID> entryIds);
 }
 
@@ -1,17 +1,102 @@
 package com.loantracking.repository;
 
+import com.loantracking.dto.PaymentExportRow;
 import com.loantracking.model.PaymentEntry;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PaymentEntryRepository extends JpaRepository<PaymentEntry, UUID> {
     List<PaymentEntry> findByEntry_EntryId(UUID entryId);
     List<PaymentEntry> findByPayment_PaymentId(UUID paymentId);
     boolean existsByPayment_PaymentIdAndEntry_EntryId(UUID paymentId, UUID entryId);
+    
+    // Batched lookup with payment and payee fetched in the same query
+    @Query("SELECT pe FROM PaymentEntry pe JOIN FETCH pe.payment p LEFT JOIN FETCH p.payeePerson " +
+           "WHERE pe.entry.entryId IN :entryIds")
+    List<PaymentEntry> findWithPaymentByEntryIds(@Param("entryIds") Collection<UUID> entryIds);
+    
+    // Payment history: one row per payment-entry link on entries the user takes part in directly
+    // (same rule as AccessContext.isDirectParticipant), newest payment date first.
+    // Dates are always bound so the range is served by idx_payment_date.
+    @Query("SELECT pe FROM PaymentEntry pe JOIN FETCH pe.payment p LEFT JOIN FETCH p.payeePerson " +
+           "JOIN FETCH pe.entry e LEFT JOIN FETCH e.lenderPerson lp LEFT JOIN e.borrowerPerson bp " +
+           "WHERE ((e.borrowerGroup IS NOT NULL AND lp.personId = :personId) " +
+           "OR (e.borrowerGroup IS NULL AND ((lp.personId = :personId AND (bp IS NULL OR bp.personId <> :personId)) " +
+           "OR (bp.personId = :personId AND lp.personId <> :personId)))) " +
+           "AND p.paymentDate BETWEEN :fromDate AND :toDate " +
+           "AND (:minAmount IS NULL OR p.paymentAmount >= :minAmount) " +
+           "AND (:maxAmount IS NULL OR p.paymentAmount <= :maxAmount) " +
+           "ORDER BY p.paymentDate DESC, pe.paymentEntryId DESC")
+    List<PaymentEntry> findHistoryForUser(@Param("personId") UUID personId,
+                                          @Param("fromDate") LocalDate fromDate,
+                                          @Param("toDate") LocalDate toDate,
+                                          @Param("minAmount") BigDecimal minAmount,
+                                          @Param("maxAmount") BigDecimal maxAmount,
+                                          Pageable pageable);
+    
+    // Next keyset page: links strictly after the (payment_date, payment_entry_id) of the previous page's last row
+    @Query("SELECT pe FROM PaymentEntry pe JOIN FETCH pe.payment p LEFT JOIN FETCH p.payeePerson " +
+           "JOIN FETCH pe.entry e LEFT JOIN FETCH e.lenderPerson lp LEFT JOIN e.borrowerPerson bp " +
+           "WHERE ((e.borrowerGroup IS NOT NULL AND lp.personId = :personId) " +
+           "OR (e.borrowerGroup IS NULL AND ((lp.personId = :personId AND (bp IS NULL OR bp.personId <> :personId)) " +
+           "OR (bp.personId = :personId AND lp.personId <> :personId)))) " +
+           "AND p.paymentDate BETWEEN :fromDate AND :toDate " +
+           "AND (:minAmount IS NULL OR p.paymentAmount >= :minAmount) " +
+           "AND (:maxAmount IS NULL OR p.paymentAmount <= :maxAmount) " +
+           "AND (p.paymentDate < :cursorDate OR (p.paymentDate = :cursorDate AND pe.paymentEntryId < :cursorId)) " +
+           "ORDER BY p.paymentDate DESC, pe.paymentEntryId DESC")
+    List<PaymentEntry> findHistoryForUserAfter(@Param("personId") UUID personId,
+                                               @Param("fromDate") LocalDate fromDate,
+                                               @Param("toDate") LocalDate toDate,
+                                               @Param("minAmount") BigDecimal minAmount,
+                                               @Param("maxAmount") BigDecimal maxAmount,
+                                               @Param("cursorDate") LocalDate cursorDate,
+                                               @Param("cursorId") UUID cursorId,
+                                               Pageable pageable);
+    
+    // Count and sum of the whole filtered history (first page only)
+    @Query("SELECT COUNT(pe), COALESCE(SUM(p.paymentAmount), 0) FROM PaymentEntry pe JOIN pe.payment p " +
+           "JOIN pe.entry e LEFT JOIN e.lenderPerson lp LEFT JOIN e.borrowerPerson bp " +
+           "WHERE ((e.borrowerGroup IS NOT NULL AND lp.personId = :personId) " +
+           "OR (e.borrowerGroup IS NULL AND ((lp.personId = :personId AND (bp IS NULL OR bp.personId <> :personId)) " +
+           "OR (bp.personId = :personId AND lp.personId <> :personId)))) " +
+           "AND p.paymentDate BETWEEN :fromDate AND :toDate " +
+           "AND (:minAmount IS NULL OR p.paymentAmount >= :minAmount) " +
+           "AND (:maxAmount IS NULL OR p.paymentAmount <= :maxAmount)")
+    List<Object[]> summarizeHistoryForUser(@Param("personId") UUID personId,
+                                           @Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate,
+                                           @Param("minAmount") BigDecimal minAmount,
+                                           @Param("maxAmount") BigDecimal maxAmount);
+    
+    // Forward-only export of payments on entries the user takes part in directly
+    // (lender, or the person borrower; for group entries only the lender), one row per payment-entry link
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.loantracking.dto.PaymentExportRow(p.paymentId, p.paymentDate, p.paymentAmount, p.changeAmount, " +
+           "payee.personId, payee.fullName, p.notes, e.entryId, e.entryName, e.referenceId, p.createdAt) " +
+           "FROM PaymentEntry pe JOIN pe.payment p JOIN pe.entry e LEFT JOIN p.payeePerson payee " +
+           "LEFT JOIN e.lenderPerson lp LEFT JOIN e.borrowerPerson bp " +
+           "WHERE (e.borrowerGroup IS NOT NULL AND lp.personId = :personId) " +
+           "OR (e.borrowerGroup IS NULL AND ((lp.personId = :personId AND (bp IS NULL OR bp.personId <> :personId)) " +
+           "OR (bp.personId = :personId AND lp.personId <> :personId))) " +
+           "ORDER BY p.paymentDate, p.createdAt, p.paymentId")
+    Stream<PaymentExportRow> streamExportRowsForUser(@Param("personId") UUID personId);
 }
 
 
@@ -11,6 +11,8 @@ import java.util.UUID;
 @Repository
 public interface PersonRepository extends JpaRepository<Person, UUID> {
     Optional<Person> findByFullName(String fullName);
+    // Names are not unique; the oldest person with the name is the one the header refers to
+    Optional<Person> findFirstByFullNameOrderByCreatedAtAsc(String fullName);
     List<Person> findByFullNameContainingIgnoreCase(String name);
 }
 
@@ -0,0 +1,11 @@
+package com.loantracking.repository;
+
+import com.loantracking.model.UserDashboardSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface UserDashboardSummaryRepository extends JpaRepository<UserDashboardSummary, UUID> {
+}
@@ -0,0 +1,91 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Entry;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The current user's identity and group memberships, loaded once per request.
+ * All checks are answered in memory so list endpoints make no per-entry queries.
+ */
+public class AccessContext {
+
+    private final UUID personId;
+    private final Set<UUID> groupIds;
+
+    public AccessContext(UUID personId, Set<UUID> groupIds) {
+        this.personId = personId;
+        this.groupIds = Collections.unmodifiableSet(groupIds);
+    }
+
+    public UUID getPersonId() {
+        return personId;
+    }
+
+    public Set<UUID> getGroupIds() {
+        return groupIds;
+    }
+
+    public boolean isMemberOf(UUID groupId) {
+        return groupId != null && groupIds.contains(groupId);
+    }
+
+    /**
+     * Whether the user can see the entry: lender, person borrower,
+     * or a member of the borrower group.
+     */
+    public boolean isRelated(Entry entry) {
+        boolean isLender = isLender(entry);
+        boolean isBorrower = isBorrowerPerson(entry);
+
+        // For group borrowers, user can be the lender OR a member of the borrower group
+        if (entry.getBorrowerGroup() != null) {
+            return isLender || isMemberOf(entry.getBorrowerGroup().getGroupId());
+        }
+
+        // For person borrowers, user must be either lender OR borrower (but not both)
+        return isLender != isBorrower; // XOR: exactly one must be true
+    }
+
+    /**
+     * Stricter check used for payments, allocations and installment terms:
+     * for group borrowers only the lender qualifies, group membership does not.
+     */
+    public boolean isDirectParticipant(Entry entry) {
+        boolean isLender = isLender(entry);
+        boolean isBorrower = isBorrowerPerson(entry);
+
+        if (entry.getBorrowerGroup() != null) {
+            return isLender;
+        }
+
+        return isLender != isBorrower; // XOR: exactly one must be true
+    }
+
+    /**
+     * @return "LENDER" if user is the lender, "BORROWER" if user is the borrower
+     *         or a member of the borrower group, null otherwise
+     */
+    public String roleFor(Entry entry) {
+        if (isLender(entry)) {
+            return "LENDER";
+        }
+        if (isBorrowerPerson(entry)) {
+            return "BORROWER";
+        }
+        if (entry.getBorrowerGroup() != null && isMemberOf(entry.getBorrowerGroup().getGroupId())) {
+            return "BORROWER";
+        }
+        return null; // User is not related to this entry
+    }
+
+    private boolean isLender(Entry entry) {
+        return entry.getLenderPerson() != null && entry.getLenderPerson().getPersonId().equals(personId);
+    }
+
+    private boolean isBorrowerPerson(Entry entry) {
+        return entry.getBorrowerPerson() != null && entry.getBorrowerPerson().getPersonId().equals(personId);
+    }
+}
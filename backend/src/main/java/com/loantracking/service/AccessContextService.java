@@ -0,0 +1,47 @@
+package com.loantracking.service;
+
+import com.loantracking.repository.GroupMemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashSet;
+import java.util.UUID;
+
+@Service
+@Transactional
+public class AccessContextService {
+
+    private static final String REQUEST_ATTRIBUTE = AccessContextService.class.getName() + ".CONTEXT";
+
+    @Autowired
+    private CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    /**
+     * Returns the access context for the current request, building it on first use.
+     * Outside of a web request (e.g. async work) a fresh context is built on every call.
+     */
+    public AccessContext current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof AccessContext) {
+                return (AccessContext) cached;
+            }
+        }
+
+        UUID personId = currentUserResolver.currentPersonId();
+        AccessContext context = new AccessContext(personId,
+                new HashSet<>(groupMemberRepository.findGroupIdsByPersonId(personId)));
+
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, context, RequestAttributes.SCOPE_REQUEST);
+        }
+        return context;
+    }
+}
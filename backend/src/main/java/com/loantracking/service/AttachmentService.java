@@ -0,0 +1,252 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Attachment;
+import com.loantracking.storage.AttachmentStorage;
+import com.loantracking.storage.StagedBlob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores attachment content in {@link AttachmentStorage} and keeps the attachment_blob
+ * reference counts that garbage collection relies on.
+ *
+ * A blob is registered (inserted, or its ref_count incremented) and its file moved into place
+ * before the transaction of the attachment row commits, so a committed row always has its file;
+ * a rolled-back upload can leave a file no row accounts for, which {@link #sweepOrphanFiles}
+ * removes later. The register upsert locks the blob row, so an upload and a garbage collection
+ * sweep of the same hash never interleave; files are deleted only after the rows are gone,
+ * while a tombstone row holds each hash.
+ */
+@Service
+@Transactional
+public class AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentService.class);
+
+    static final String STORAGE_LOCATION = "FILESYSTEM";
+
+    private static final String REGISTER_BLOB_SQL =
+            "INSERT INTO attachment_blob (content_hash, size_bytes, ref_count, created_at, last_referenced_at) " +
+            "VALUES (:contentHash, :sizeBytes, 1, now(), now()) " +
+            "ON CONFLICT (content_hash) DO UPDATE SET ref_count = attachment_blob.ref_count + 1, " +
+            "last_referenced_at = now()";
+
+    // Attachments are also removed by ON DELETE CASCADE from entries and payments,
+    // which the application never sees, so collection starts by recounting references
+    private static final String RECOUNT_SQL =
+            "UPDATE attachment_blob b SET ref_count = c.refs FROM (" +
+            "   SELECT b2.content_hash, count(a.attachment_id) AS refs FROM attachment_blob b2 " +
+            "   LEFT JOIN attachment a ON a.content_hash = b2.content_hash GROUP BY b2.content_hash) c " +
+            "WHERE c.content_hash = b.content_hash AND b.ref_count <> c.refs";
+
+    // SKIP LOCKED leaves blobs that an in-flight upload is registering; the grace period covers
+    // uploads whose attachment row was not yet visible to the recount
+    private static final String SWEEP_SQL =
+            "DELETE FROM attachment_blob WHERE content_hash IN (" +
+            "   SELECT b.content_hash FROM attachment_blob b " +
+            "   WHERE b.ref_count = 0 AND b.last_referenced_at < :cutoff " +
+            "   AND NOT EXISTS (SELECT 1 FROM attachment a WHERE a.content_hash = b.content_hash) " +
+            "   ORDER BY b.last_referenced_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING content_hash";
+
+    // Claims hashes for their file deletion: a hash with a row (swept but registered again since,
+    // or still in use) conflicts, or waits for the registering upload to finish, and keeps its file
+    private static final String INSERT_TOMBSTONES_SQL =
+            "INSERT INTO attachment_blob (content_hash, size_bytes, ref_count, created_at, last_referenced_at) " +
+            "SELECT h, 0, 0, now(), now() FROM unnest(CAST(:contentHashes AS varchar[])) AS h " +
+            "ON CONFLICT (content_hash) DO NOTHING RETURNING content_hash";
+
+    private static final String DELETE_TOMBSTONES_SQL =
+            "DELETE FROM attachment_blob WHERE content_hash IN (:contentHashes) AND ref_count = 0";
+
+    private static final String LEGACY_BATCH_SQL =
+            "SELECT a.attachment_id, a.file_data AS oid, " +
+            "coalesce(a.file_size, length(lo_get(a.file_data))) AS content_length " +
+            "FROM attachment a WHERE a.content_hash IS NULL AND a.file_data IS NOT NULL " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_MIGRATED_SQL =
+            "UPDATE attachment SET content_hash = :contentHash, file_size = :sizeBytes, file_data = NULL, " +
+            "uploaded_location = '" + STORAGE_LOCATION + "' WHERE attachment_id = :attachmentId";
+
+    // Large objects are not removed with the row that points at them
+    private static final String UNLINK_LARGE_OBJECT_SQL =
+            "SELECT lo_unlink(:oid) WHERE EXISTS (SELECT 1 FROM pg_largeobject_metadata WHERE oid = :oid) " +
+            "AND NOT EXISTS (SELECT 1 FROM attachment WHERE file_data = :oid)";
+
+    @Autowired
+    private AttachmentStorage attachmentStorage;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProofThumbnailService proofThumbnailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.attachments.gc-grace-period:PT1H}")
+    private Duration gcGracePeriod;
+
+    /**
+     * Stores an uploaded file and returns an unsaved attachment that references it.
+     * The caller links it to its entry or payment and saves it in the same transaction.
+     */
+    public Attachment storeUpload(MultipartFile file) throws IOException {
+        StagedBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = store(in);
+        }
+        Attachment attachment = new Attachment();
+        attachment.setUploadedLocation(STORAGE_LOCATION);
+        attachment.setOriginalFilename(file.getOriginalFilename());
+        attachment.setContentType(file.getContentType());
+        attachment.setFileSize(blob.getSize());
+        attachment.setContentHash(blob.getContentHash());
+        proofThumbnailService.generateAfterCommit(blob.getContentHash(), file.getContentType());
+        return attachment;
+    }
+
+    /**
+     * Recounts blob references and deletes up to {@code limit} unreferenced blobs whose
+     * last upload is older than the grace period.
+     * @return the number of blobs deleted
+     */
+    public int collectGarbage(int limit) {
+        int recounted = jdbcTemplate.update(RECOUNT_SQL, new MapSqlParameterSource());
+        List<String> released = jdbcTemplate.queryForList(SWEEP_SQL, new MapSqlParameterSource()
+                .addValue("cutoff", LocalDateTime.now().minus(gcGracePeriod))
+                .addValue("limit", limit), String.class);
+        if (!released.isEmpty()) {
+            afterCommit(() -> deleteFiles(released));
+        }
+        if (recounted > 0 || !released.isEmpty()) {
+            log.info("Attachment GC: {} reference counts corrected, {} blobs deleted", recounted, released.size());
+        }
+        return released.size();
+    }
+
+    /**
+     * Deletes stored files that no attachment_blob row accounts for (left by uploads that rolled back
+     * after their file was moved into place) and staged files of uploads that never finished,
+     * once they are older than the grace period. Claims {@code batchSize} hashes per transaction.
+     * @return the number of files deleted
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int sweepOrphanFiles(int batchSize) {
+        Instant cutoff = Instant.now().minus(gcGracePeriod);
+        int deleted = 0;
+        try {
+            deleted += attachmentStorage.deleteStagedBefore(cutoff);
+            List<String> stored = attachmentStorage.listStoredBefore(cutoff);
+            for (int from = 0; from < stored.size(); from += batchSize) {
+                deleted += deleteFiles(stored.subList(from, Math.min(from + batchSize, stored.size())));
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep orphaned attachment files", e);
+        }
+        if (deleted > 0) {
+            log.info("Attachment GC: {} orphaned files deleted", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Moves up to {@code limit} attachments from in-database large objects to AttachmentStorage.
+     * @return the number of attachments migrated
+     */
+    public int migrateLegacyAttachments(int limit) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(LEGACY_BATCH_SQL,
+                new MapSqlParameterSource("limit", limit));
+        for (Map<String, Object> row : rows) {
+            long oid = ((Number) row.get("oid")).longValue();
+            long contentLength = ((Number) row.get("content_length")).longValue();
+            StagedBlob blob;
+            try (InputStream in = new LargeObjectResource(jdbcTemplate, oid, contentLength, null).getInputStream()) {
+                blob = store(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to migrate attachment " + row.get("attachment_id"), e);
+            }
+            // store() has moved the file into place (and synced it), so the large object can go
+            jdbcTemplate.update(MARK_MIGRATED_SQL, new MapSqlParameterSource()
+                    .addValue("contentHash", blob.getContentHash())
+                    .addValue("sizeBytes", blob.getSize())
+                    .addValue("attachmentId", row.get("attachment_id")));
+            jdbcTemplate.queryForList(UNLINK_LARGE_OBJECT_SQL, new MapSqlParameterSource("oid", oid));
+        }
+        return rows.size();
+    }
+
+    // The file is in place before the blob row commits; a failure fails the caller's transaction
+    private StagedBlob store(InputStream content) throws IOException {
+        StagedBlob blob = attachmentStorage.stage(content);
+        try {
+            jdbcTemplate.update(REGISTER_BLOB_SQL, new MapSqlParameterSource()
+                    .addValue("contentHash", blob.getContentHash())
+                    .addValue("sizeBytes", blob.getSize()));
+            attachmentStorage.commit(blob);
+        } catch (RuntimeException | IOException e) {
+            attachmentStorage.discard(blob);
+            throw e;
+        }
+        return blob;
+    }
+
+    // Runs outside the rows' transaction, so it needs one of its own; the tombstones keep an upload
+    // of the same content from registering the hash until its file is gone
+    private int deleteFiles(List<String> candidates) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer deleted = requiresNew.execute(status -> {
+            List<String> claimed = jdbcTemplate.queryForList(INSERT_TOMBSTONES_SQL,
+                    new MapSqlParameterSource("contentHashes", candidates.toArray(new String[0])), String.class);
+            for (String contentHash : claimed) {
+                try {
+                    attachmentStorage.delete(contentHash);
+                } catch (IOException e) {
+                    log.warn("Could not delete attachment blob {}", contentHash, e);
+                }
+            }
+            if (!claimed.isEmpty()) {
+                jdbcTemplate.update(DELETE_TOMBSTONES_SQL, new MapSqlParameterSource("contentHashes", claimed));
+            }
+            return claimed.size();
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
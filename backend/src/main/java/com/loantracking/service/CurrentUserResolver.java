@@ -0,0 +1,166 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Person;
+import com.loantracking.repository.PersonRepository;
+import com.loantracking.util.UserContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves the X-Selected-User-Name header to a person id, creating the person on first use
+ * (read requests resolve it up front in CurrentUserInterceptor).
+ * Ids are memoized per request and kept in a bounded LRU cache across requests;
+ * PersonService evicts a person's entry when they are renamed or deleted.
+ */
+@Service
+public class CurrentUserResolver {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserResolver.class.getName() + ".PERSON_ID";
+
+    // Serializes creation per name across instances; released when the creating transaction ends
+    private static final String LOCK_NAME_SQL = "SELECT pg_advisory_xact_lock(hashtext(:name))";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate requiresNew;
+
+    private final Map<String, UUID> cache;
+
+    public CurrentUserResolver(PlatformTransactionManager transactionManager,
+                               @Value("${app.current-user.cache-size:1024}") int cacheSize) {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Access-ordered LinkedHashMap: the least recently used name is dropped once the cache is full
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the id of the person named by the current request's header.
+     */
+    public UUID currentPersonId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object memo = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (memo instanceof UUID) {
+                return (UUID) memo;
+            }
+        }
+
+        UUID personId = resolve(UserContext.getCurrentUserName());
+
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, personId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return personId;
+    }
+
+    /**
+     * Drops any cached name that points at the person. Called when a person is renamed or deleted;
+     * repeated after commit so a concurrent lookup cannot re-cache the old name in between.
+     */
+    public void evict(UUID personId) {
+        removeCachedId(personId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeCachedId(personId);
+                }
+            });
+        }
+    }
+
+    private UUID resolve(String userName) {
+        UUID cached;
+        synchronized (cache) {
+            cached = cache.get(userName);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Join the caller's transaction (a second connection per request could exhaust the pool)
+            // and cache only once a newly created person is committed
+            UUID personId = findOrCreate(userName);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache(userName, personId);
+                }
+            });
+            return personId;
+        }
+
+        // A read-only transaction can still look the person up on its own connection
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Optional<UUID> existing = find(userName);
+            if (existing.isPresent()) {
+                cache(userName, existing.get());
+                return existing.get();
+            }
+        }
+
+        // No transaction (CurrentUserInterceptor, before a GET handler), or a read-only one that cannot insert:
+        // create in a short transaction of our own. Inside a read-only transaction that takes a second
+        // connection, which is why requests resolve the user up front.
+        UUID personId = requiresNew.execute(status -> findOrCreate(userName));
+        cache(userName, personId);
+        return personId;
+    }
+
+    private Optional<UUID> find(String userName) {
+        return personRepository.findFirstByFullNameOrderByCreatedAtAsc(userName).map(Person::getPersonId);
+    }
+
+    private void cache(String userName, UUID personId) {
+        synchronized (cache) {
+            cache.put(userName, personId);
+        }
+    }
+
+    private UUID findOrCreate(String userName) {
+        return find(userName)
+                .orElseGet(() -> {
+                    // Re-check under the lock: a concurrent request may have just created the person
+                    jdbcTemplate.query(LOCK_NAME_SQL, new MapSqlParameterSource("name", userName), rs -> { });
+                    return find(userName)
+                            .orElseGet(() -> {
+                                Person user = new Person();
+                                user.setFullName(userName);
+                                return personRepository.save(user).getPersonId();
+                            });
+                });
+    }
+
+    private void removeCachedId(UUID personId) {
+        synchronized (cache) {
+            cache.values().removeIf(personId::equals);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.loantracking.service;
+
+import com.loantracking.model.UserDashboardSummary;
+import com.loantracking.repository.EntryRepository;
+import com.loantracking.repository.UserDashboardSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Maintains the user_dashboard_summary read model.
+ *
+ * Write paths call {@link #trackEntry} (or {@link #trackNewEntry}) before they change an entry,
+ * its installment terms or the members of its borrower group. The entry's contribution
+ * (status count, amounts, paid penalties and the set of users who see it) is captured then,
+ * captured again just before commit, and the difference is applied to each affected user's row
+ * in the same transaction, one row at a time in person_id order. Missing rows are built on first
+ * read; a per-user advisory lock keeps that build from missing a delta committed alongside it.
+ * {@link #rebuildAll()} recomputes every row from scratch.
+ */
+@Service
+@Transactional
+public class DashboardSummaryService {
+
+    // Paid penalties of one entry: every penalty once the entry is PAID, otherwise only those on PAID terms
+    private static final String PAID_PENALTIES_SQL =
+            "SELECT COALESCE(SUM(t.penalty_applied), 0) FROM installment_term t " +
+            "JOIN installment_plan p ON p.installment_id = t.installment_id " +
+            "WHERE p.entry_id = e.entry_id AND e.transaction_type = 'INSTALLMENT_EXPENSE' " +
+            "AND t.penalty_applied > 0 AND (e.status = 'PAID' OR t.term_status = 'PAID')";
+
+    // Every (entry, user) pair where the user sees the entry on their dashboard
+    private static final String ENTRY_PERSON_SQL =
+            "SELECT e.entry_id, e.lender_person_id AS person_id FROM entry e %1$s " +
+            "UNION SELECT e.entry_id, e.borrower_person_id FROM entry e " +
+            "WHERE e.borrower_person_id IS NOT NULL %2$s " +
+            "UNION SELECT e.entry_id, gm.person_id FROM entry e " +
+            "JOIN group_member gm ON gm.group_id = e.borrower_group_id %1$s";
+
+    private static final String CONTRIBUTION_SQL =
+            "SELECT e.entry_id, e.status, e.amount_borrowed, e.amount_remaining, (" + PAID_PENALTIES_SQL + ") AS paid_penalties " +
+            "FROM entry e WHERE e.entry_id IN (:entryIds)";
+
+    private static final String CONTRIBUTION_PERSON_SQL = String.format(ENTRY_PERSON_SQL,
+            "WHERE e.entry_id IN (:entryIds)", "AND e.entry_id IN (:entryIds)");
+
+    private static final String REBUILD_SQL =
+            "WITH entry_person AS (" + String.format(ENTRY_PERSON_SQL, "", "") + ") " +
+            "INSERT INTO user_dashboard_summary (person_id, total_entries, unpaid_count, partially_paid_count, paid_count, " +
+            "total_borrowed, total_remaining, total_paid_penalties, updated_at) " +
+            "SELECT p.person_id, COUNT(e.entry_id), " +
+            "COUNT(e.entry_id) FILTER (WHERE e.status = 'UNPAID'), " +
+            "COUNT(e.entry_id) FILTER (WHERE e.status = 'PARTIALLY_PAID'), " +
+            "COUNT(e.entry_id) FILTER (WHERE e.status = 'PAID'), " +
+            "COALESCE(SUM(e.amount_borrowed), 0), COALESCE(SUM(e.amount_remaining), 0), " +
+            "COALESCE(SUM((" + PAID_PENALTIES_SQL + ")), 0), CURRENT_TIMESTAMP " +
+            "FROM person p " +
+            "LEFT JOIN entry_person ep ON ep.person_id = p.person_id " +
+            "LEFT JOIN entry e ON e.entry_id = ep.entry_id " +
+            "%s GROUP BY p.person_id " +
+            "ON CONFLICT (person_id) DO %s";
+
+    private static final String REBUILD_OVERWRITE =
+            "UPDATE SET total_entries = EXCLUDED.total_entries, unpaid_count = EXCLUDED.unpaid_count, " +
+            "partially_paid_count = EXCLUDED.partially_paid_count, paid_count = EXCLUDED.paid_count, " +
+            "total_borrowed = EXCLUDED.total_borrowed, total_remaining = EXCLUDED.total_remaining, " +
+            "total_paid_penalties = EXCLUDED.total_paid_penalties, updated_at = EXCLUDED.updated_at";
+
+    // Held from just before a user's row is built or changed until commit (two-key form, so it never
+    // collides with the single-key locks taken elsewhere)
+    private static final int PERSON_LOCK_CLASS = 0x6c6f616e;
+    private static final String PERSON_LOCK_SQL =
+            "SELECT pg_advisory_xact_lock(:lockClass, hashtext(CAST(:personId AS text)))";
+
+    // Rows that do not exist yet are skipped: under the person lock, a row still missing here is
+    // built after this transaction commits, so from data that already includes the change
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE user_dashboard_summary SET total_entries = total_entries + :totalEntries, " +
+            "unpaid_count = unpaid_count + :unpaidCount, partially_paid_count = partially_paid_count + :partiallyPaidCount, " +
+            "paid_count = paid_count + :paidCount, total_borrowed = total_borrowed + :totalBorrowed, " +
+            "total_remaining = total_remaining + :totalRemaining, " +
+            "total_paid_penalties = total_paid_penalties + :totalPaidPenalties, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE person_id = :personId";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserDashboardSummaryRepository userDashboardSummaryRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    /**
+     * Returns the user's summary row, building it first if it does not exist yet.
+     */
+    public UserDashboardSummary getSummary(UUID personId) {
+        return userDashboardSummaryRepository.findById(personId)
+                .orElseGet(() -> {
+                    // Waits for writers that skipped the missing row; the build below then sees their changes
+                    lockPerson(personId);
+                    jdbcTemplate.update(String.format(REBUILD_SQL, "WHERE p.person_id = :personId", "NOTHING"),
+                            new MapSqlParameterSource("personId", personId));
+                    return userDashboardSummaryRepository.findById(personId)
+                            .orElseThrow(() -> new IllegalArgumentException("Person not found with id: " + personId));
+                });
+    }
+
+    /**
+     * Recomputes every user's summary from the entry tables in one statement.
+     * @return the number of rows written
+     */
+    public int rebuildAll() {
+        return jdbcTemplate.update(String.format(REBUILD_SQL, "", REBUILD_OVERWRITE), new MapSqlParameterSource());
+    }
+
+    /**
+     * Records the entry's current contribution so the change made to it in this
+     * transaction can be applied as a delta at commit. Call before modifying the entry.
+     */
+    public void trackEntry(UUID entryId) {
+        trackEntries(Collections.singletonList(entryId));
+    }
+
+    public void trackEntries(Collection<UUID> entryIds) {
+        PendingDeltas pending = pendingDeltas();
+        List<UUID> untracked = new ArrayList<>();
+        for (UUID entryId : entryIds) {
+            if (!pending.before.containsKey(entryId)) {
+                untracked.add(entryId);
+            }
+        }
+        if (untracked.isEmpty()) {
+            return;
+        }
+        Map<UUID, Contribution> current = loadContributions(untracked);
+        for (UUID entryId : untracked) {
+            pending.before.put(entryId, current.getOrDefault(entryId, Contribution.NONE));
+        }
+    }
+
+    /**
+     * Registers an entry created in this transaction (it contributed nothing before).
+     */
+    public void trackNewEntry(UUID entryId) {
+        pendingDeltas().before.putIfAbsent(entryId, Contribution.NONE);
+    }
+
+    /**
+     * Tracks every entry borrowed by the group; call before the group's members change.
+     */
+    public void trackGroupEntries(UUID groupId) {
+        trackEntries(entryRepository.findEntryIdsByBorrowerGroupId(groupId));
+    }
+
+    private PendingDeltas pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Dashboard summary changes must be tracked inside a transaction");
+        }
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(PendingDeltas.class);
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(PendingDeltas.class, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    // Reads straight from the database, so changes not yet flushed are not included
+    private Map<UUID, Contribution> loadContributions(Collection<UUID> entryIds) {
+        if (entryIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("entryIds", entryIds);
+
+        Map<UUID, Set<UUID>> personsByEntry = new HashMap<>();
+        jdbcTemplate.query(CONTRIBUTION_PERSON_SQL, params, rs -> {
+            personsByEntry.computeIfAbsent(rs.getObject("entry_id", UUID.class), id -> new HashSet<>())
+                    .add(rs.getObject("person_id", UUID.class));
+        });
+
+        Map<UUID, Contribution> contributions = new HashMap<>();
+        jdbcTemplate.query(CONTRIBUTION_SQL, params, rs -> {
+            UUID entryId = rs.getObject("entry_id", UUID.class);
+            contributions.put(entryId, new Contribution(
+                    rs.getString("status"),
+                    rs.getBigDecimal("amount_borrowed"),
+                    rs.getBigDecimal("amount_remaining"),
+                    rs.getBigDecimal("paid_penalties"),
+                    personsByEntry.getOrDefault(entryId, Collections.emptySet())));
+        });
+        return contributions;
+    }
+
+    private void applyPending(PendingDeltas pending) {
+        // Push pending entity changes so the "after" state can be read with SQL
+        entryRepository.flush();
+        Map<UUID, Contribution> after = loadContributions(pending.before.keySet());
+
+        // Sorted, so concurrent transactions lock the persons and their rows in the same order
+        Map<UUID, Delta> deltas = new TreeMap<>();
+        pending.before.forEach((entryId, before) -> {
+            before.addTo(deltas, -1);
+            after.getOrDefault(entryId, Contribution.NONE).addTo(deltas, 1);
+        });
+
+        List<MapSqlParameterSource> batch = new ArrayList<>();
+        deltas.forEach((personId, delta) -> {
+            if (!delta.isZero()) {
+                lockPerson(personId);
+                batch.add(delta.toParams(personId));
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    private void lockPerson(UUID personId) {
+        jdbcTemplate.query(PERSON_LOCK_SQL, new MapSqlParameterSource("personId", personId)
+                .addValue("lockClass", PERSON_LOCK_CLASS), rs -> {
+        });
+    }
+
+    // Entries tracked in the current transaction, applied once right before it commits
+    private class PendingDeltas implements TransactionSynchronization {
+        private final Map<UUID, Contribution> before = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            applyPending(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PendingDeltas.class);
+        }
+    }
+
+    // What one entry adds to the summary of each user who sees it
+    private static class Contribution {
+        static final Contribution NONE = new Contribution(null, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                Collections.emptySet());
+
+        final String status;
+        final BigDecimal amountBorrowed;
+        final BigDecimal amountRemaining;
+        final BigDecimal paidPenalties;
+        final Set<UUID> personIds;
+
+        Contribution(String status, BigDecimal amountBorrowed, BigDecimal amountRemaining,
+                     BigDecimal paidPenalties, Set<UUID> personIds) {
+            this.status = status;
+            this.amountBorrowed = amountBorrowed;
+            this.amountRemaining = amountRemaining;
+            this.paidPenalties = paidPenalties;
+            this.personIds = personIds;
+        }
+
+        void addTo(Map<UUID, Delta> deltas, int sign) {
+            for (UUID personId : personIds) {
+                Delta delta = deltas.computeIfAbsent(personId, id -> new Delta());
+                delta.totalEntries += sign;
+                if ("UNPAID".equals(status)) {
+                    delta.unpaidCount += sign;
+                } else if ("PARTIALLY_PAID".equals(status)) {
+                    delta.partiallyPaidCount += sign;
+                } else if ("PAID".equals(status)) {
+                    delta.paidCount += sign;
+                }
+                BigDecimal factor = BigDecimal.valueOf(sign);
+                delta.totalBorrowed = delta.totalBorrowed.add(amountBorrowed.multiply(factor));
+                delta.totalRemaining = delta.totalRemaining.add(amountRemaining.multiply(factor));
+                delta.totalPaidPenalties = delta.totalPaidPenalties.add(paidPenalties.multiply(factor));
+            }
+        }
+    }
+
+    private static class Delta {
+        int totalEntries;
+        int unpaidCount;
+        int partiallyPaidCount;
+        int paidCount;
+        BigDecimal totalBorrowed = BigDecimal.ZERO;
+        BigDecimal totalRemaining = BigDecimal.ZERO;
+        BigDecimal totalPaidPenalties = BigDecimal.ZERO;
+
+        boolean isZero() {
+            return totalEntries == 0 && unpaidCount == 0 && partiallyPaidCount == 0 && paidCount == 0
+                    && totalBorrowed.signum() == 0 && totalRemaining.signum() == 0 && totalPaidPenalties.signum() == 0;
+        }
+
+        MapSqlParameterSource toParams(UUID personId) {
+            return new MapSqlParameterSource("personId", personId)
+                    .addValue("totalEntries", totalEntries)
+                    .addValue("unpaidCount", unpaidCount)
+                    .addValue("partiallyPaidCount", partiallyPaidCount)
+                    .addValue("paidCount", paidCount)
+                    .addValue("totalBorrowed", totalBorrowed)
+                    .addValue("totalRemaining", totalRemaining)
+                    .addValue("totalPaidPenalties", totalPaidPenalties);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Entry;
+
+import java.util.Collection;
+
+/**
+ * Published by LedgerService, inside the writing transaction, after balance changes to
+ * the entries were recorded. The entries are the managed instances, already holding their new balance.
+ */
+public record EntryBalanceChangedEvent(Collection<Entry> entries) {
+}
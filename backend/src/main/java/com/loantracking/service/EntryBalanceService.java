@@ -0,0 +1,178 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Entry;
+import com.loantracking.model.PaymentStatus;
+import com.loantracking.repository.EntryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes balance changes per entry. Writers lock the entry row first
+ * (so the dashboard before-state and change amounts are read from a balance nobody
+ * else can move), then change amount_remaining with one UPDATE ... RETURNING
+ * instead of writing back a value computed in Java.
+ * Entries are always locked in entry_id order, so batches can't deadlock each other.
+ * Locking also starts the ledger of entries the background backfill hasn't reached yet.
+ */
+@Service
+@Transactional
+public class EntryBalanceService {
+
+    private static final String BALANCE_COLUMNS = "entry_id, amount_remaining, status, date_fully_paid, updated_at";
+
+    // FOR NO KEY UPDATE still lets other transactions insert rows referencing the entry
+    private static final String LOCK_SQL =
+            "SELECT " + BALANCE_COLUMNS + " FROM entry WHERE entry_id IN (:entryIds) " +
+            "ORDER BY entry_id FOR NO KEY UPDATE";
+
+    // Same status rules as before: nothing left is PAID, less than borrowed is PARTIALLY_PAID
+    private static final String APPLY_PAYMENT_SQL =
+            "UPDATE entry SET " +
+            "amount_remaining = GREATEST(amount_remaining - :amount, 0), " +
+            "status = CASE WHEN amount_remaining - :amount <= 0 THEN 'PAID' " +
+            "   WHEN amount_remaining - :amount < amount_borrowed THEN 'PARTIALLY_PAID' ELSE status END, " +
+            "date_fully_paid = CASE WHEN amount_remaining - :amount <= 0 THEN :today ELSE date_fully_paid END, " +
+            "updated_at = :now " +
+            "WHERE entry_id = :entryId RETURNING " + BALANCE_COLUMNS;
+
+    private static final String ADD_PENALTY_SQL =
+            "UPDATE entry SET amount_remaining = amount_remaining + :amount, updated_at = :now " +
+            "WHERE entry_id = :entryId RETURNING " + BALANCE_COLUMNS;
+
+    private static final RowMapper<BalanceRow> BALANCE_ROW_MAPPER = (rs, rowNum) -> {
+        Date dateFullyPaid = rs.getDate("date_fully_paid");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new BalanceRow(
+                rs.getObject("entry_id", UUID.class),
+                rs.getBigDecimal("amount_remaining"),
+                PaymentStatus.valueOf(rs.getString("status")),
+                dateFullyPaid != null ? dateFullyPaid.toLocalDate() : null,
+                updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    };
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Locks the entry until the transaction ends and returns it with its current balance.
+     * Call before changing the entry in this transaction.
+     */
+    public Optional<Entry> lock(UUID entryId) {
+        return Optional.ofNullable(lockAll(List.of(entryId)).get(entryId));
+    }
+
+    /**
+     * Locks the entries in entry_id order; ids that don't exist are left out of the result.
+     */
+    public Map<UUID, Entry> lockAll(Collection<UUID> entryIds) {
+        List<BalanceRow> rows = lockRows(entryIds);
+        if (rows.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Map<UUID, Entry> loaded = entryRepository.findAllById(rows.stream().map(BalanceRow::entryId).toList())
+                .stream()
+                .collect(Collectors.toMap(Entry::getEntryId, Function.identity()));
+
+        // Entries already in the persistence context may have been read before the lock
+        Map<UUID, Entry> locked = new LinkedHashMap<>();
+        for (BalanceRow row : rows) {
+            Entry entry = loaded.get(row.entryId());
+            accept(entry, row);
+            locked.put(row.entryId(), entry);
+        }
+        return locked;
+    }
+
+    /**
+     * Locks the entries without loading them, for set-based updates written in SQL.
+     * The entries must not have been loaded earlier in this transaction.
+     * @return the ids that exist, in lock order
+     */
+    public List<UUID> lockIds(Collection<UUID> entryIds) {
+        return lockRows(entryIds).stream().map(BalanceRow::entryId).toList();
+    }
+
+    /**
+     * Subtracts a payment (or a payment correction, when negative) from the balance
+     * and updates status and date fully paid to match.
+     * @return the change to amount_remaining (never below zero, so it can be less than the payment)
+     */
+    public BigDecimal applyPayment(Entry entry, BigDecimal amount) {
+        BigDecimal before = entry.getAmountRemaining();
+        update(APPLY_PAYMENT_SQL, entry, amount);
+        return entry.getAmountRemaining().subtract(before);
+    }
+
+    /**
+     * Adds a late fee to the balance; status is left as it is.
+     */
+    public void addPenalty(Entry entry, BigDecimal penalty) {
+        update(ADD_PENALTY_SQL, entry, penalty);
+    }
+
+    private List<BalanceRow> lockRows(Collection<UUID> entryIds) {
+        if (entryIds.isEmpty()) {
+            return List.of();
+        }
+        List<BalanceRow> rows = jdbcTemplate.query(LOCK_SQL,
+                new MapSqlParameterSource("entryIds", entryIds), BALANCE_ROW_MAPPER);
+        ledgerService.startHistory(rows.stream().map(BalanceRow::entryId).toList());
+        return rows;
+    }
+
+    private void update(String sql, Entry entry, BigDecimal amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("entryId", entry.getEntryId())
+                .addValue("amount", amount)
+                .addValue("today", LocalDate.now())
+                .addValue("now", LocalDateTime.now());
+        accept(entry, jdbcTemplate.queryForObject(sql, params, BALANCE_ROW_MAPPER));
+    }
+
+    // Copies the row into the entity and makes it Hibernate's snapshot, so the flush
+    // doesn't write the entry again (a full-row UPDATE would put back a stale balance)
+    private void accept(Entry entry, BalanceRow row) {
+        entry.setAmountRemaining(row.amountRemaining());
+        entry.setStatus(row.status());
+        entry.setDateFullyPaid(row.dateFullyPaid());
+        entry.setUpdatedAt(row.updatedAt());
+
+        Session session = entityManager.unwrap(Session.class);
+        session.setReadOnly(entry, true);
+        session.setReadOnly(entry, false);
+    }
+
+    private record BalanceRow(UUID entryId, BigDecimal amountRemaining, PaymentStatus status,
+                              LocalDate dateFullyPaid, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Entry;
+import com.loantracking.model.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Evaluates entry completion as each balance change happens, in the same transaction,
+ * instead of scanning every entry later. Also checks the new balance against the ledger
+ * and flags entries that disagree, so the auto-complete repair only has those to fix.
+ */
+@Service
+@Transactional
+public class EntryCompletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(EntryCompletionService.class);
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @EventListener
+    public void onBalanceChanged(EntryBalanceChangedEvent event) {
+        Map<UUID, BigDecimal> ledgerBalances = ledgerService.currentBalances(
+                event.entries().stream().map(Entry::getEntryId).toList());
+
+        for (Entry entry : event.entries()) {
+            BigDecimal ledgerBalance = ledgerBalances.get(entry.getEntryId());
+            if (ledgerBalance == null || ledgerBalance.compareTo(entry.getAmountRemaining()) != 0) {
+                log.warn("Entry {} balance {} does not match its ledger ({}), flagged for reconciliation",
+                        entry.getEntryId(), entry.getAmountRemaining(), ledgerBalance);
+                entry.setNeedsReconciliation(true);
+            }
+            updateStatus(entry);
+        }
+    }
+
+    /**
+     * Marks the entry PAID once nothing is left, or PARTIALLY_PAID once some of it was paid.
+     * Entries already PAID are left as they are.
+     * @return true if the entry became PAID
+     */
+    public boolean updateStatus(Entry entry) {
+        if (entry.getStatus() == PaymentStatus.PAID) {
+            return false;
+        }
+        BigDecimal remaining = entry.getAmountRemaining();
+        if (remaining.compareTo(BigDecimal.ZERO) <= 0) {
+            entry.setStatus(PaymentStatus.PAID);
+            if (entry.getDateFullyPaid() == null) {
+                entry.setDateFullyPaid(LocalDate.now());
+            }
+            return true;
+        }
+        if (remaining.compareTo(entry.getAmountBorrowed()) < 0) {
+            entry.setStatus(PaymentStatus.PARTIALLY_PAID);
+        }
+        return false;
+    }
+}
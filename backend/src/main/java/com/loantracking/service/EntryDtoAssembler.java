@@ -0,0 +1,251 @@
+package com.loantracking.service;
+
+import com.loantracking.dto.EntryDTO;
+import com.loantracking.dto.InstallmentPlanDTO;
+import com.loantracking.dto.InstallmentTermDTO;
+import com.loantracking.dto.PaymentAllocationDTO;
+import com.loantracking.dto.PaymentDTO;
+import com.loantracking.model.*;
+import com.loantracking.repository.AttachmentRepository;
+import com.loantracking.repository.InstallmentTermRepository;
+import com.loantracking.repository.PaymentAllocationPaymentRepository;
+import com.loantracking.repository.PaymentAllocationRepository;
+import com.loantracking.repository.PaymentEntryRepository;
+import com.loantracking.util.InstallmentNotes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Builds EntryDTOs for a batch of entries.
+ * Child rows (terms, payments, allocations, allocation payment totals and proof flags) are loaded
+ * with one IN (...) query per table for the whole batch, so the number of queries
+ * stays the same no matter how many entries are converted.
+ * The installment plan is read from the entry itself; list queries fetch-join it.
+ */
+@Component
+public class EntryDtoAssembler {
+
+    @Autowired
+    private InstallmentTermRepository installmentTermRepository;
+
+    @Autowired
+    private PaymentEntryRepository paymentEntryRepository;
+
+    @Autowired
+    private PaymentAllocationRepository paymentAllocationRepository;
+
+    @Autowired
+    private PaymentAllocationPaymentRepository paymentAllocationPaymentRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    public EntryDTO toDTO(Entry entry) {
+        return toDTOs(List.of(entry)).get(0);
+    }
+
+    /**
+     * Converts the entries to DTOs, preserving their order.
+     */
+    public List<EntryDTO> toDTOs(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<UUID> entryIds = new ArrayList<>();
+        List<UUID> installmentIds = new ArrayList<>();
+        List<UUID> groupEntryIds = new ArrayList<>();
+        for (Entry entry : entries) {
+            entryIds.add(entry.getEntryId());
+            if (entry.getTransactionType() == TransactionType.INSTALLMENT_EXPENSE && entry.getInstallmentPlan() != null) {
+                installmentIds.add(entry.getInstallmentPlan().getInstallmentId());
+            }
+            if (entry.getTransactionType() == TransactionType.GROUP_EXPENSE) {
+                groupEntryIds.add(entry.getEntryId());
+            }
+        }
+
+        Map<UUID, List<InstallmentTerm>> termsByPlan = new HashMap<>();
+        if (!installmentIds.isEmpty()) {
+            for (InstallmentTerm term : installmentTermRepository.findByInstallmentIds(installmentIds)) {
+                termsByPlan.computeIfAbsent(term.getInstallmentPlan().getInstallmentId(), k -> new ArrayList<>()).add(term);
+            }
+        }
+
+        Map<UUID, List<Payment>> paymentsByEntry = new HashMap<>();
+        Set<UUID> paymentIds = new HashSet<>();
+        for (PaymentEntry pe : paymentEntryRepository.findWithPaymentByEntryIds(entryIds)) {
+            paymentsByEntry.computeIfAbsent(pe.getEntry().getEntryId(), k -> new ArrayList<>()).add(pe.getPayment());
+            paymentIds.add(pe.getPayment().getPaymentId());
+        }
+
+        // Proof flags come from id-only queries; attachment bytes are never read here
+        Set<UUID> entriesWithProof = new HashSet<>(attachmentRepository.findEntryIdsWithAttachments(entryIds));
+        Set<UUID> paymentsWithProof = paymentIds.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(attachmentRepository.findPaymentIdsWithAttachments(paymentIds));
+
+        Map<UUID, List<PaymentAllocation>> allocationsByEntry = new HashMap<>();
+        Map<UUID, BigDecimal> linkedTotalsByAllocation = new HashMap<>();
+        if (!groupEntryIds.isEmpty()) {
+            List<UUID> allocationIds = new ArrayList<>();
+            for (PaymentAllocation allocation : paymentAllocationRepository.findWithPersonByEntryIds(groupEntryIds)) {
+                allocationsByEntry.computeIfAbsent(allocation.getEntry().getEntryId(), k -> new ArrayList<>()).add(allocation);
+                allocationIds.add(allocation.getAllocationId());
+            }
+            if (!allocationIds.isEmpty()) {
+                // Only allocations with at least one linked payment appear in the summary
+                for (Object[] row : paymentAllocationPaymentRepository.summarizeByAllocationIds(allocationIds)) {
+                    linkedTotalsByAllocation.put((UUID) row[0], (BigDecimal) row[2]);
+                }
+            }
+        }
+
+        List<EntryDTO> dtos = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            EntryDTO dto = convertEntry(entry);
+            dto.setHasProof(entriesWithProof.contains(entry.getEntryId()));
+
+            if (entry.getTransactionType() == TransactionType.INSTALLMENT_EXPENSE && entry.getInstallmentPlan() != null) {
+                InstallmentPlan plan = entry.getInstallmentPlan();
+                dto.setInstallmentPlan(convertInstallmentPlan(plan, entry,
+                        termsByPlan.getOrDefault(plan.getInstallmentId(), Collections.emptyList())));
+            }
+
+            List<PaymentDTO> payments = new ArrayList<>();
+            for (Payment payment : paymentsByEntry.getOrDefault(entry.getEntryId(), Collections.emptyList())) {
+                PaymentDTO paymentDTO = convertPayment(payment, entry);
+                paymentDTO.setHasProof(paymentsWithProof.contains(payment.getPaymentId()));
+                payments.add(paymentDTO);
+            }
+            dto.setPayments(payments);
+
+            if (entry.getTransactionType() == TransactionType.GROUP_EXPENSE) {
+                List<PaymentAllocationDTO> allocationDTOs = new ArrayList<>();
+                for (PaymentAllocation allocation : allocationsByEntry.getOrDefault(entry.getEntryId(), Collections.emptyList())) {
+                    allocationDTOs.add(convertAllocation(allocation, entry,
+                            linkedTotalsByAllocation.get(allocation.getAllocationId())));
+                }
+                dto.setPaymentAllocations(allocationDTOs);
+            }
+
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private EntryDTO convertEntry(Entry entry) {
+        EntryDTO dto = new EntryDTO();
+        dto.setEntryId(entry.getEntryId());
+        dto.setEntryName(entry.getEntryName());
+        dto.setDescription(entry.getDescription());
+        dto.setTransactionType(entry.getTransactionType());
+        dto.setDateBorrowed(entry.getDateBorrowed());
+        dto.setDateFullyPaid(entry.getDateFullyPaid());
+        dto.setAmountBorrowed(entry.getAmountBorrowed());
+        dto.setAmountRemaining(entry.getAmountRemaining());
+        dto.setStatus(entry.getStatus());
+        dto.setPaymentMethod(entry.getPaymentMethod());
+        dto.setNotes(entry.getNotes());
+        dto.setPaymentNotes(entry.getPaymentNotes());
+        dto.setReferenceId(entry.getReferenceId());
+
+        if (entry.getBorrowerPerson() != null) {
+            dto.setBorrowerPersonId(entry.getBorrowerPerson().getPersonId());
+            dto.setBorrowerPersonName(entry.getBorrowerPerson().getFullName());
+        }
+
+        if (entry.getBorrowerGroup() != null) {
+            dto.setBorrowerGroupId(entry.getBorrowerGroup().getGroupId());
+            dto.setBorrowerGroupName(entry.getBorrowerGroup().getGroupName());
+        }
+
+        if (entry.getLenderPerson() != null) {
+            dto.setLenderPersonId(entry.getLenderPerson().getPersonId());
+            dto.setLenderPersonName(entry.getLenderPerson().getFullName());
+        }
+        return dto;
+    }
+
+    private PaymentDTO convertPayment(Payment payment, Entry entry) {
+        PaymentDTO paymentDTO = new PaymentDTO();
+        paymentDTO.setPaymentId(payment.getPaymentId());
+        paymentDTO.setPaymentDate(payment.getPaymentDate());
+        paymentDTO.setPaymentAmount(payment.getPaymentAmount());
+        paymentDTO.setChangeAmount(payment.getChangeAmount());
+        if (payment.getPayeePerson() != null) {
+            paymentDTO.setPayeePersonId(payment.getPayeePerson().getPersonId());
+            paymentDTO.setPayeePersonName(payment.getPayeePerson().getFullName());
+        }
+        paymentDTO.setNotes(payment.getNotes());
+        paymentDTO.setEntryId(entry.getEntryId());
+        paymentDTO.setEntryName(entry.getEntryName());
+        paymentDTO.setEntryReferenceId(entry.getReferenceId());
+        return paymentDTO;
+    }
+
+    /**
+     * Converts PaymentAllocation to DTO, computing status and percentage.
+     * linkedTotal is the sum of linked allocation payments, or null when there are none.
+     */
+    private PaymentAllocationDTO convertAllocation(PaymentAllocation allocation, Entry entry, BigDecimal linkedTotal) {
+        PaymentAllocationDTO dto = new PaymentAllocationDTO();
+        dto.setAllocationId(allocation.getAllocationId());
+        dto.setEntryId(entry.getEntryId());
+        dto.setPersonId(allocation.getPerson().getPersonId());
+        dto.setPersonName(allocation.getPerson().getFullName());
+        dto.setDescription(allocation.getDescription());
+        dto.setAmount(allocation.getAmount());
+        dto.setNotes(allocation.getNotes());
+        // Without linked allocation payments the exact status can't be determined - UNPAID for safety
+        dto.setPaymentAllocationStatus(PaymentAllocationService.computeStatus(entry.getStatus(), linkedTotal, allocation.getAmount()));
+
+        // Compute percentage of total
+        if (entry.getAmountBorrowed().compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal percentage = allocation.getAmount()
+                    .divide(entry.getAmountBorrowed(), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+            dto.setPercentageOfTotal(percentage);
+        } else {
+            dto.setPercentageOfTotal(BigDecimal.ZERO);
+        }
+        return dto;
+    }
+
+    private InstallmentPlanDTO convertInstallmentPlan(InstallmentPlan plan, Entry entry, List<InstallmentTerm> terms) {
+        InstallmentPlanDTO dto = new InstallmentPlanDTO();
+        dto.setInstallmentId(plan.getInstallmentId());
+        dto.setEntryId(entry.getEntryId());
+        dto.setStartDate(plan.getStartDate());
+        dto.setPaymentFrequency(plan.getPaymentFrequency());
+        dto.setPaymentTerms(plan.getPaymentTerms());
+        dto.setAmountPerTerm(plan.getAmountPerTerm());
+
+        // Plans not yet migrated still carry the day packed into notes
+        if (plan.getPaymentFrequencyDay() == null && InstallmentNotes.isPacked(plan.getNotes())) {
+            dto.setPaymentFrequencyDay(InstallmentNotes.extractPaymentFrequencyDay(plan.getNotes()));
+            dto.setNotes(InstallmentNotes.extractUserNotes(plan.getNotes()));
+        } else {
+            dto.setPaymentFrequencyDay(plan.getPaymentFrequencyDay());
+            dto.setNotes(plan.getNotes());
+        }
+
+        List<InstallmentTermDTO> termDTOs = new ArrayList<>(terms.size());
+        for (InstallmentTerm term : terms) {
+            InstallmentTermDTO termDTO = new InstallmentTermDTO();
+            termDTO.setTermId(term.getTermId());
+            termDTO.setInstallmentId(plan.getInstallmentId());
+            termDTO.setTermNumber(term.getTermNumber());
+            termDTO.setDueDate(term.getDueDate());
+            termDTO.setTermStatus(term.getTermStatus());
+            termDTO.setPenaltyApplied(term.getPenaltyApplied());
+            termDTOs.add(termDTO);
+        }
+        dto.setInstallmentTerms(termDTOs);
+        return dto;
+    }
+}
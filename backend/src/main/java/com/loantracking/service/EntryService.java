@@ -4,29 +4,39 @@ import com.loantracking.dto.*;
 import com.loantracking.model.Attachment;
 import com.loantracking.model.*;
 import com.loantracking.repository.*;
+import com.loantracking.storage.ProofSize;
+import com.loantracking.util.InstallmentSchedule;
+import com.loantracking.util.InstallmentSchedule.ScheduleRule;
+import com.loantracking.util.PageCursor;
 import com.loantracking.util.ReferenceIdGenerator;
-import com.loantracking.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.temporal.TemporalAdjusters;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
-import java.util.HashMap;
 import java.util.Map;
 
 @Service
 @Transactional
 public class EntryService {
     
+    private static final Logger log = LoggerFactory.getLogger(EntryService.class);
+    
+    // Upper bound for keyset pages so a single request cannot pull the whole table
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private EntryRepository entryRepository;
     
@@ -42,12 +52,15 @@ public class EntryService {
     @Autowired
     private InstallmentTermRepository installmentTermRepository;
     
-    @Autowired
-    private PaymentEntryRepository paymentEntryRepository;
-
     @Autowired
     private AttachmentRepository attachmentRepository;
     
+    @Autowired
+    private ProofFileService proofFileService;
+    
+    @Autowired
+    private AttachmentService attachmentService;
+    
     @Autowired
     private GroupMemberRepository groupMemberRepository;
     
@@ -58,98 +71,90 @@ public class EntryService {
     private PaymentAllocationPaymentRepository paymentAllocationPaymentRepository;
     
     @Autowired
-    private InstallmentService installmentService;
-    
-    private Person getOrCreateCurrentUser() {
-        String userName = UserContext.getCurrentUserName();
-        return personRepository.findByFullName(userName)
-                .orElseGet(() -> {
-                    Person user = new Person();
-                    user.setFullName(userName);
-                    return personRepository.save(user);
-                });
+    private EntryDtoAssembler entryDtoAssembler;
+    
+    @Autowired
+    private AccessContextService accessContextService;
+    
+    @Autowired
+    private DashboardSummaryService dashboardSummaryService;
+    
+    @Autowired
+    private EntryBalanceService entryBalanceService;
+    
+    @Autowired
+    private LedgerService ledgerService;
+    
+    @Autowired
+    private EntryCompletionService entryCompletionService;
+    
+    public List<EntryDTO> getAllEntries() {
+        AccessContext access = accessContextService.current();
+        
+        // Participant filtering happens in SQL instead of loading the whole entry table
+        List<Entry> entries = entryRepository.findEntriesForUser(access.getPersonId());
+        return toDTOsWithRole(entries, access);
     }
     
-    private boolean isEntryRelatedToParentUser(Entry entry, UUID parentUserId) {
-        // Parent user must be either lender or borrower (never both, never neither)
-        boolean isLender = entry.getLenderPerson() != null && 
-                          entry.getLenderPerson().getPersonId().equals(parentUserId);
-        boolean isBorrower = entry.getBorrowerPerson() != null && 
-                            entry.getBorrowerPerson().getPersonId().equals(parentUserId);
-        
-        // For group borrowers, parent user can be the lender OR a member of the borrower group
-        if (entry.getBorrowerGroup() != null) {
-            if (isLender) {
-                return true;
-            }
-            // Check if user is a member of the borrower group using repository
-            boolean isGroupMember = groupMemberRepository.existsByGroup_GroupIdAndPerson_PersonId(
-                entry.getBorrowerGroup().getGroupId(), parentUserId);
-            return isGroupMember;
+    // Batch-converts entries (fixed number of child queries) and sets the user's role on each DTO
+    private List<EntryDTO> toDTOsWithRole(List<Entry> entries, AccessContext access) {
+        List<EntryDTO> dtos = entryDtoAssembler.toDTOs(entries);
+        for (int i = 0; i < entries.size(); i++) {
+            dtos.get(i).setUserRole(access.roleFor(entries.get(i)));
         }
-        
-        // For person borrowers, parent user must be either lender OR borrower (but not both)
-        return isLender != isBorrower; // XOR: exactly one must be true
+        return dtos;
     }
     
     /**
-     * Determines the current user's role for an entry.
-     * @param entry The entry to check
-     * @param parentUserId The current user's ID
-     * @return "LENDER" if user is the lender, "BORROWER" if user is the borrower, null otherwise
+     * Returns one page of the current user's entries, newest first.
+     * Uses keyset pagination on (created_at, entry_id): pass the returned nextCursor
+     * to fetch the following page. nextCursor is null on the last page.
      */
-    private String getUserRoleForEntry(Entry entry, UUID parentUserId) {
-        if (entry.getLenderPerson() != null && 
-            entry.getLenderPerson().getPersonId().equals(parentUserId)) {
-            return "LENDER";
+    public EntryPageDTO getEntryPage(String cursor, int size, PaymentStatus status, TransactionType transactionType) {
+        AccessContext access = accessContextService.current();
+        UUID currentUserId = access.getPersonId();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // Fetch one extra row to find out whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Entry> rows;
+        if (cursor == null || cursor.trim().isEmpty()) {
+            rows = entryRepository.findEntryPageForUser(currentUserId, status, transactionType, limit);
+        } else {
+            String[] parts = PageCursor.decode(cursor.trim(), 2);
+            LocalDateTime cursorCreatedAt;
+            UUID cursorEntryId;
+            try {
+                cursorCreatedAt = LocalDateTime.parse(parts[0]);
+                cursorEntryId = UUID.fromString(parts[1]);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            rows = entryRepository.findEntryPageForUserAfter(currentUserId, status, transactionType,
+                    cursorCreatedAt, cursorEntryId, limit);
         }
+        boolean hasMore = rows.size() > pageSize;
+        List<Entry> page = hasMore ? rows.subList(0, pageSize) : rows;
         
-        // Check if user is borrower (person or group member)
-        if (entry.getBorrowerPerson() != null && 
-            entry.getBorrowerPerson().getPersonId().equals(parentUserId)) {
-            return "BORROWER";
-        }
+        List<EntryDTO> dtos = toDTOsWithRole(page, access);
         
-        // Check if user is member of borrower group
-        if (entry.getBorrowerGroup() != null) {
-            boolean isGroupMember = groupMemberRepository.existsByGroup_GroupIdAndPerson_PersonId(
-                entry.getBorrowerGroup().getGroupId(), parentUserId);
-            if (isGroupMember) {
-                return "BORROWER";
-            }
+        String nextCursor = null;
+        if (hasMore) {
+            Entry last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getEntryId());
         }
         
-        return null; // User is not related to this entry
-    }
-    
-    public List<EntryDTO> getAllEntries() {
-        Person currentUser = getOrCreateCurrentUser();
-        UUID currentUserId = currentUser.getPersonId();
-        
-        return entryRepository.findAll().stream()
-                .filter(entry -> isEntryRelatedToParentUser(entry, currentUserId))
-                .map(entry -> {
-                    EntryDTO dto = convertToDTO(entry);
-                    // Determine and set user role for this entry
-                    String userRole = getUserRoleForEntry(entry, currentUserId);
-                    dto.setUserRole(userRole);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return new EntryPageDTO(dtos, nextCursor);
     }
     
+    /**
+     * Pure read; lapsed installment terms are marked DELINQUENT by the nightly sweep (DelinquencySweepJob).
+     */
+    @Transactional(readOnly = true)
     public EntryDTO getEntryById(UUID id) {
         Entry entry = entryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
         
-        // Update delinquent terms for installment entries before returning
-        if (entry.getTransactionType() == TransactionType.INSTALLMENT_EXPENSE) {
-            installmentService.updateDelinquentTermsForEntry(id);
-            // Reload entry to get updated term statuses
-            entry = entryRepository.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
-        }
-        
         // Allow access to any entry by direct ID, regardless of user involvement
         // This enables viewing entries immediately after creation, even if the creator
         // is not involved in the entry. The getAllEntries() method still filters
@@ -157,13 +162,44 @@ public class EntryService {
         EntryDTO dto = convertToDTO(entry);
         
         // Determine and set user role for this entry
-        Person currentUser = getOrCreateCurrentUser();
-        String userRole = getUserRoleForEntry(entry, currentUser.getPersonId());
-        dto.setUserRole(userRole);
+        dto.setUserRole(accessContextService.current().roleFor(entry));
         
         return dto;
     }
     
+    /**
+     * The entry's balance as of a date (today when not given), from its latest ledger snapshot
+     * on or before that date plus the events after it.
+     */
+    @Transactional(readOnly = true)
+    public EntryBalanceDTO getBalanceAsOf(UUID id, LocalDate asOf) {
+        if (!entryRepository.existsById(id)) {
+            throw new IllegalArgumentException("Entry not found with id: " + id);
+        }
+        
+        // Same access as getEntryById: any entry by direct ID
+        LocalDate date = asOf != null ? asOf : LocalDate.now();
+        BigDecimal balance = ledgerService.balanceAsOf(id, date)
+                .orElseThrow(() -> new IllegalArgumentException("Entry has no ledger history yet"));
+        return new EntryBalanceDTO(id, date, balance);
+    }
+    
+    /**
+     * Gets the entry's receipt/proof with content type information.
+     * Only metadata is read here; the bytes are streamed when the response is written.
+     */
+    public ProofFileDTO getEntryProof(UUID id, ProofSize size) {
+        Entry entry = entryRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
+        
+        if (!accessContextService.current().isRelated(entry)) {
+            throw new IllegalArgumentException("Entry not found with id: " + id);
+        }
+        
+        return proofFileService.findEntryProof(id, size)
+                .orElseThrow(() -> new IllegalArgumentException("Entry proof not found"));
+    }
+    
     public EntryDTO createEntry(CreateEntryRequest request, MultipartFile proof) {
         // Validate borrower (must be either person or group, not both)
         if (request.getBorrowerPersonId() != null && request.getBorrowerGroupId() != null) {
@@ -234,15 +270,6 @@ public class EntryService {
             entry.setReferenceId(ReferenceIdGenerator.generateReferenceId(borrowerGroup, lender));
         }
         
-        // Attach proof if provided
-        if (proof != null && !proof.isEmpty()) {
-            try {
-                entry.setReceiptOrProof(proof.getBytes());
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Failed to read proof file", e);
-            }
-        }
-        
         // Ensure reference ID is unique
         String baseRefId = entry.getReferenceId();
         String refId = baseRefId;
@@ -254,19 +281,15 @@ public class EntryService {
         entry.setReferenceId(refId);
         
         Entry saved = entryRepository.save(entry);
+        dashboardSummaryService.trackNewEntry(saved.getEntryId());
 
-        // Save proof to attachment table as well (if provided)
+        // Proof bytes go to attachment storage; the attachment row keeps only their hash
         if (proof != null && !proof.isEmpty()) {
             try {
-                Attachment attachment = new Attachment();
+                Attachment attachment = attachmentService.storeUpload(proof);
                 attachment.setEntry(saved);
-                attachment.setUploadedLocation("DATABASE");
-                attachment.setOriginalFilename(proof.getOriginalFilename());
-                attachment.setContentType(proof.getContentType());
-                attachment.setFileSize(proof.getSize());
-                attachment.setFileData(proof.getBytes());
                 attachmentRepository.save(attachment);
-            } catch (Exception e) {
+            } catch (IOException e) {
                 throw new IllegalArgumentException("Failed to store proof attachment", e);
             }
         }
@@ -278,14 +301,14 @@ public class EntryService {
                 createInstallmentPlan(saved, request);
             } catch (Exception e) {
                 // Log the error and rethrow to ensure transaction rollback
-                System.err.println("Error creating installment plan: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error creating installment plan for entry {}", saved.getEntryId(), e);
                 throw new IllegalArgumentException("Failed to create installment plan: " + e.getMessage(), e);
             }
         }
         
         // Flush to ensure all changes are persisted before returning
         entryRepository.flush();
+        ledgerService.recordPrincipal(saved);
         
         // Reload the entry to ensure all relationships (like installment plan) are properly loaded
         Entry refreshedEntry = entryRepository.findById(saved.getEntryId())
@@ -312,176 +335,61 @@ public class EntryService {
         plan.setPaymentTerms(request.getPaymentTerms());
         
         // Auto-compute amount_per_term: Amount borrowed / Payment terms
-        BigDecimal amountPerTerm = entry.getAmountBorrowed()
-                .divide(BigDecimal.valueOf(request.getPaymentTerms()), 2, java.math.RoundingMode.HALF_UP);
-        plan.setAmountPerTerm(amountPerTerm);
+        plan.setAmountPerTerm(InstallmentSchedule.amountPerTerm(entry.getAmountBorrowed(), request.getPaymentTerms()));
         
-        // Store paymentFrequencyDay in notes field as JSON (preserving any existing notes)
+        // Valid days are stored in canonical form ("5", "FRIDAY"); anything else is kept as given
         String paymentFrequencyDay = request.getPaymentFrequencyDay();
         if (paymentFrequencyDay != null && !paymentFrequencyDay.trim().isEmpty()) {
-            try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                Map<String, String> notesData = new HashMap<>();
-                notesData.put("paymentFrequencyDay", paymentFrequencyDay);
-                // If there are existing notes, preserve them
-                if (request.getNotes() != null && !request.getNotes().trim().isEmpty()) {
-                    notesData.put("userNotes", request.getNotes().trim());
-                }
-                plan.setNotes(objectMapper.writeValueAsString(notesData));
-            } catch (Exception e) {
-                // Fallback: store as simple format if JSON fails
-                plan.setNotes("__PAYMENT_FREQUENCY_DAY__:" + paymentFrequencyDay + "__" + 
-                             (request.getNotes() != null ? "\n" + request.getNotes() : ""));
-            }
-        } else {
-            // No paymentFrequencyDay specified, just store user notes if any
-            plan.setNotes(request.getNotes());
+            String canonicalDay = InstallmentSchedule.rule(plan.getPaymentFrequency(), paymentFrequencyDay).paymentFrequencyDay();
+            plan.setPaymentFrequencyDay(canonicalDay != null ? canonicalDay : paymentFrequencyDay.trim());
         }
+        plan.setNotes(request.getNotes());
         
         InstallmentPlan savedPlan = installmentPlanRepository.save(plan);
+        // Keep the inverse side in sync so the DTO assembler sees the plan on the managed entry
+        entry.setInstallmentPlan(savedPlan);
         
         // Generate installment terms
-        generateInstallmentTerms(savedPlan, paymentFrequencyDay);
+        generateInstallmentTerms(savedPlan);
     }
     
-    private void generateInstallmentTerms(InstallmentPlan plan, String paymentFrequencyDay) {
+    private void generateInstallmentTerms(InstallmentPlan plan) {
         try {
-            LocalDate startDate = plan.getStartDate();
-            PaymentFrequency frequency = plan.getPaymentFrequency();
-            
-            // Extract paymentFrequencyDay from notes if not provided
-            if (paymentFrequencyDay == null || paymentFrequencyDay.trim().isEmpty()) {
-                paymentFrequencyDay = extractPaymentFrequencyDay(plan.getNotes());
-            }
-            
-            LocalDate currentDate = calculateFirstDueDate(startDate, frequency, paymentFrequencyDay);
+            ScheduleRule rule = InstallmentSchedule.rule(plan.getPaymentFrequency(), plan.getPaymentFrequencyDay());
+            LocalDate currentDate = rule.firstDueDate(plan.getStartDate());
             
+            // Built in memory and saved together: time-ordered ids need no round trip,
+            // so the inserts go out as one JDBC batch at flush
+            List<InstallmentTerm> terms = new ArrayList<>(plan.getPaymentTerms());
             for (int i = 1; i <= plan.getPaymentTerms(); i++) {
                 InstallmentTerm term = new InstallmentTerm();
                 term.setInstallmentPlan(plan);
                 term.setTermNumber(i);
                 term.setDueDate(currentDate);
                 term.setTermStatus(InstallmentStatus.NOT_STARTED);
-                installmentTermRepository.save(term);
+                terms.add(term);
                 
                 // Calculate next due date based on frequency and specific day
-                if (frequency == PaymentFrequency.WEEKLY) {
-                    currentDate = calculateNextWeeklyDate(currentDate, paymentFrequencyDay);
-                } else if (frequency == PaymentFrequency.MONTHLY) {
-                    currentDate = calculateNextMonthlyDate(currentDate, paymentFrequencyDay);
-                }
+                currentDate = rule.nextDueDate(currentDate);
             }
+            installmentTermRepository.saveAll(terms);
         } catch (Exception e) {
-            System.err.println("Error generating installment terms: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error generating installment terms for plan {}", plan.getInstallmentId(), e);
             throw new IllegalArgumentException("Failed to generate installment terms: " + e.getMessage(), e);
         }
     }
     
-    private String extractPaymentFrequencyDay(String notes) {
-        if (notes == null || notes.trim().isEmpty()) {
-            return null;
-        }
-        
-        // Try to parse as JSON first
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, String> notesData = objectMapper.readValue(notes, new TypeReference<Map<String, String>>() {});
-            return notesData.get("paymentFrequencyDay");
-        } catch (Exception e) {
-            // Fallback: try simple format
-            if (notes.contains("__PAYMENT_FREQUENCY_DAY__:")) {
-                int start = notes.indexOf("__PAYMENT_FREQUENCY_DAY__:") + "__PAYMENT_FREQUENCY_DAY__:".length();
-                int end = notes.indexOf("__", start);
-                if (end > start) {
-                    return notes.substring(start, end);
-                }
-            }
-        }
-        return null;
-    }
-    
-    private LocalDate calculateFirstDueDate(LocalDate startDate, PaymentFrequency frequency, String paymentFrequencyDay) {
-        if (paymentFrequencyDay == null || paymentFrequencyDay.trim().isEmpty()) {
-            return startDate;
-        }
-        
-        if (frequency == PaymentFrequency.MONTHLY) {
-            try {
-                int dayOfMonth = Integer.parseInt(paymentFrequencyDay.trim());
-                if (dayOfMonth >= 1 && dayOfMonth <= 28) {
-                    // Use the specified day of month, but ensure it's valid for the start month
-                    int actualDay = Math.min(dayOfMonth, startDate.lengthOfMonth());
-                    LocalDate firstDueDate = startDate.withDayOfMonth(actualDay);
-                    // If start date is after the target day, move to next month
-                    if (startDate.getDayOfMonth() > dayOfMonth) {
-                        LocalDate nextMonth = startDate.plusMonths(1);
-                        actualDay = Math.min(dayOfMonth, nextMonth.lengthOfMonth());
-                        firstDueDate = nextMonth.withDayOfMonth(actualDay);
-                    }
-                    return firstDueDate;
-                }
-            } catch (NumberFormatException e) {
-                // Invalid day format, use start date
-            }
-        } else if (frequency == PaymentFrequency.WEEKLY) {
-            try {
-                DayOfWeek targetDayOfWeek = DayOfWeek.valueOf(paymentFrequencyDay.trim().toUpperCase());
-                // Find the next occurrence of the target day of week
-                LocalDate firstDueDate = startDate.with(TemporalAdjusters.nextOrSame(targetDayOfWeek));
-                return firstDueDate;
-            } catch (IllegalArgumentException e) {
-                // Invalid day of week, use start date
-            }
-        }
-        
-        return startDate;
-    }
-    
-    private LocalDate calculateNextWeeklyDate(LocalDate currentDate, String paymentFrequencyDay) {
-        if (paymentFrequencyDay == null || paymentFrequencyDay.trim().isEmpty()) {
-            return currentDate.plusWeeks(1);
-        }
-        
-        try {
-            DayOfWeek targetDayOfWeek = DayOfWeek.valueOf(paymentFrequencyDay.trim().toUpperCase());
-            // Move to next week and find the next occurrence of the target day
-            // Use next() instead of nextOrSame() to ensure we get the next week's occurrence
-            LocalDate nextWeek = currentDate.plusWeeks(1);
-            return nextWeek.with(TemporalAdjusters.nextOrSame(targetDayOfWeek));
-        } catch (IllegalArgumentException e) {
-            return currentDate.plusWeeks(1);
-        }
-    }
-    
-    private LocalDate calculateNextMonthlyDate(LocalDate currentDate, String paymentFrequencyDay) {
-        if (paymentFrequencyDay == null || paymentFrequencyDay.trim().isEmpty()) {
-            return currentDate.plusMonths(1);
-        }
-        
-        try {
-            int dayOfMonth = Integer.parseInt(paymentFrequencyDay.trim());
-            if (dayOfMonth >= 1 && dayOfMonth <= 28) {
-                LocalDate nextMonth = currentDate.plusMonths(1);
-                // Use the specified day, but ensure it's valid for the month
-                int actualDay = Math.min(dayOfMonth, nextMonth.lengthOfMonth());
-                return nextMonth.withDayOfMonth(actualDay);
-            }
-        } catch (NumberFormatException e) {
-            // Invalid day format, use simple plus months
-        }
-        
-        return currentDate.plusMonths(1);
-    }
-    
     public EntryDTO updateEntry(UUID id, CreateEntryRequest request) {
-        Entry entry = entryRepository.findById(id)
+        // Locked so a concurrent payment can't change the balance adjusted below
+        Entry entry = entryBalanceService.lock(id)
                 .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
         
         // Allow updating entries by direct entry ID, regardless of user involvement
         // This enables editing entries immediately after creation, even if the creator
         // is not involved in the entry. This matches the behavior of getEntryById.
         
+        dashboardSummaryService.trackEntry(id);
+        
         // Store old amount borrowed to calculate remaining balance adjustment
         BigDecimal oldAmountBorrowed = entry.getAmountBorrowed();
         
@@ -507,6 +415,7 @@ public class EntryService {
                 newRemaining = BigDecimal.ZERO;
             }
             
+            BigDecimal adjustment = newRemaining.subtract(entry.getAmountRemaining());
             entry.setAmountRemaining(newRemaining);
             
             // Update status based on new remaining amount
@@ -520,6 +429,8 @@ public class EntryService {
             } else {
                 entry.setStatus(PaymentStatus.UNPAID);
             }
+            
+            ledgerService.recordAdjustment(entry, adjustment);
         }
         
         // Update payment method if provided
@@ -535,11 +446,12 @@ public class EntryService {
         Entry entry = entryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isEntryRelatedToParentUser(entry, currentUser.getPersonId())) {
+        if (!accessContextService.current().isRelated(entry)) {
             throw new IllegalArgumentException("Entry not found with id: " + id);
         }
         
+        dashboardSummaryService.trackEntry(id);
+        
         // Delete all payment_allocation_payment records for allocations of this entry first
         // to avoid foreign key constraint violations
         List<PaymentAllocation> allocations = paymentAllocationRepository.findByEntry_EntryId(id);
@@ -555,18 +467,22 @@ public class EntryService {
     }
     
     public EntryDTO completeEntry(UUID id) {
-        Entry entry = entryRepository.findById(id)
+        Entry entry = entryBalanceService.lock(id)
                 .orElseThrow(() -> new IllegalArgumentException("Entry not found with id: " + id));
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isEntryRelatedToParentUser(entry, currentUser.getPersonId())) {
+        if (!accessContextService.current().isRelated(entry)) {
             throw new IllegalArgumentException("Entry not found with id: " + id);
         }
         
+        dashboardSummaryService.trackEntry(id);
+        
+        BigDecimal writtenOff = entry.getAmountRemaining().negate();
+        
         // Mark entry as paid
         entry.setStatus(PaymentStatus.PAID);
         entry.setAmountRemaining(BigDecimal.ZERO);
         entry.setDateFullyPaid(LocalDate.now());
+        ledgerService.recordCompletion(entry, writtenOff);
         
         Entry updated = entryRepository.save(entry);
         
@@ -590,57 +506,44 @@ public class EntryService {
     }
     
     /**
-     * Auto-complete entries that are fully paid based on payments.
-     * This recalculates amountRemaining from actual payments to ensure accuracy.
-     * This can be called periodically or after payments are made.
+     * Repairs the current user's entries that were flagged for reconciliation: resets amountRemaining
+     * to the ledger balance and updates the status to match. Completion itself is evaluated as
+     * balances change (EntryCompletionService), so with nothing flagged this is a single index lookup.
      * @return the count of entries that were auto-completed
      */
     public int autoCompleteEntries() {
-        Person currentUser = getOrCreateCurrentUser();
-        UUID currentUserId = currentUser.getPersonId();
+        AccessContext access = accessContextService.current();
+        
+        List<UUID> flaggedIds = entryRepository.findEntryIdsNeedingReconciliationForUser(access.getPersonId());
+        if (flaggedIds.isEmpty()) {
+            return 0;
+        }
         
-        // Get all entries for the current user that are not already PAID
-        List<Entry> candidateEntries = entryRepository.findAll().stream()
-            .filter(entry -> isEntryRelatedToParentUser(entry, currentUserId))
-            .filter(entry -> entry.getStatus() != PaymentStatus.PAID)
+        // Balances are read from the ledger, so no payment may land in between
+        List<Entry> flaggedEntries = entryBalanceService.lockAll(flaggedIds).values().stream()
+            .filter(access::isRelated)
+            .collect(Collectors.toList());
+        List<UUID> repairIds = flaggedEntries.stream()
+            .map(Entry::getEntryId)
             .collect(Collectors.toList());
+        dashboardSummaryService.trackEntries(repairIds);
+        
+        // Locking started the ledger of any entry the backfill hadn't reached, so every entry has a balance
+        Map<UUID, BigDecimal> ledgerBalances = ledgerService.currentBalances(repairIds);
         
         int completedCount = 0;
         
-        for (Entry entry : candidateEntries) {
-            // Recalculate amountRemaining from actual payments to ensure accuracy
-            List<PaymentEntry> paymentEntries = paymentEntryRepository.findByEntry_EntryId(entry.getEntryId());
-            
-            // Calculate total paid from all payments for this entry
-            BigDecimal totalPaid = paymentEntries.stream()
-                .map(pe -> pe.getPayment().getPaymentAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Recalculate remaining amount
-            BigDecimal calculatedRemaining = entry.getAmountBorrowed().subtract(totalPaid);
-            
-            // Ensure remaining is not negative
-            if (calculatedRemaining.compareTo(BigDecimal.ZERO) < 0) {
-                calculatedRemaining = BigDecimal.ZERO;
+        for (Entry entry : flaggedEntries) {
+            BigDecimal ledgerBalance = ledgerBalances.get(entry.getEntryId());
+            if (ledgerBalance != null) {
+                // Ensure remaining is not negative
+                entry.setAmountRemaining(ledgerBalance.max(BigDecimal.ZERO));
             }
+            entry.setNeedsReconciliation(false);
             
-            // Update the stored amountRemaining with the recalculated value
-            entry.setAmountRemaining(calculatedRemaining);
-            
-            // If remaining is zero or less, mark as PAID
-            if (calculatedRemaining.compareTo(BigDecimal.ZERO) <= 0) {
-                entry.setStatus(PaymentStatus.PAID);
-                if (entry.getDateFullyPaid() == null) {
-                    entry.setDateFullyPaid(LocalDate.now());
-                }
+            if (entryCompletionService.updateStatus(entry)) {
                 completedCount++;
-            } else if (totalPaid.compareTo(BigDecimal.ZERO) > 0 && 
-                      totalPaid.compareTo(entry.getAmountBorrowed()) < 0) {
-                // If some payment has been made but not fully paid, update to PARTIALLY_PAID
-                entry.setStatus(PaymentStatus.PARTIALLY_PAID);
             }
-            
-            // Save the entry with updated values
             entryRepository.save(entry);
         }
         
@@ -648,208 +551,6 @@ public class EntryService {
     }
     
     private EntryDTO convertToDTO(Entry entry) {
-        EntryDTO dto = new EntryDTO();
-        dto.setEntryId(entry.getEntryId());
-        dto.setEntryName(entry.getEntryName());
-        dto.setDescription(entry.getDescription());
-        dto.setTransactionType(entry.getTransactionType());
-        dto.setDateBorrowed(entry.getDateBorrowed());
-        dto.setDateFullyPaid(entry.getDateFullyPaid());
-        dto.setAmountBorrowed(entry.getAmountBorrowed());
-        dto.setAmountRemaining(entry.getAmountRemaining());
-        dto.setStatus(entry.getStatus());
-        dto.setPaymentMethod(entry.getPaymentMethod());
-        dto.setNotes(entry.getNotes());
-        dto.setPaymentNotes(entry.getPaymentNotes());
-        dto.setReferenceId(entry.getReferenceId());
-        
-        if (entry.getBorrowerPerson() != null) {
-            dto.setBorrowerPersonId(entry.getBorrowerPerson().getPersonId());
-            dto.setBorrowerPersonName(entry.getBorrowerPerson().getFullName());
-        }
-        
-        if (entry.getBorrowerGroup() != null) {
-            dto.setBorrowerGroupId(entry.getBorrowerGroup().getGroupId());
-            dto.setBorrowerGroupName(entry.getBorrowerGroup().getGroupName());
-        }
-        
-        if (entry.getLenderPerson() != null) {
-            dto.setLenderPersonId(entry.getLenderPerson().getPersonId());
-            dto.setLenderPersonName(entry.getLenderPerson().getFullName());
-        }
-        
-        // Load installment plan if exists
-        if (entry.getTransactionType() == TransactionType.INSTALLMENT_EXPENSE) {
-            installmentPlanRepository.findByEntry_EntryId(entry.getEntryId())
-                    .ifPresent(plan -> dto.setInstallmentPlan(convertInstallmentPlanToDTO(plan)));
-        }
-        
-        // Load payments for this entry
-        List<com.loantracking.dto.PaymentDTO> payments = paymentEntryRepository
-                .findByEntry_EntryId(entry.getEntryId()).stream()
-                .map(pe -> {
-                    com.loantracking.dto.PaymentDTO paymentDTO = new com.loantracking.dto.PaymentDTO();
-                    paymentDTO.setPaymentId(pe.getPayment().getPaymentId());
-                    paymentDTO.setPaymentDate(pe.getPayment().getPaymentDate());
-                    paymentDTO.setPaymentAmount(pe.getPayment().getPaymentAmount());
-                    paymentDTO.setChangeAmount(pe.getPayment().getChangeAmount());
-                    if (pe.getPayment().getPayeePerson() != null) {
-                        paymentDTO.setPayeePersonId(pe.getPayment().getPayeePerson().getPersonId());
-                        paymentDTO.setPayeePersonName(pe.getPayment().getPayeePerson().getFullName());
-                    }
-                    paymentDTO.setNotes(pe.getPayment().getNotes());
-                    paymentDTO.setEntryId(entry.getEntryId());
-                    paymentDTO.setEntryName(entry.getEntryName());
-                    paymentDTO.setEntryReferenceId(entry.getReferenceId());
-                    return paymentDTO;
-                })
-                .collect(Collectors.toList());
-        dto.setPayments(payments);
-        
-        // Load payment allocations for group expenses
-        if (entry.getTransactionType() == TransactionType.GROUP_EXPENSE) {
-            List<PaymentAllocation> allocations = paymentAllocationRepository.findByEntry_EntryId(entry.getEntryId());
-            List<com.loantracking.dto.PaymentAllocationDTO> allocationDTOs = allocations.stream()
-                    .map(this::convertPaymentAllocationToDTO)
-                    .collect(Collectors.toList());
-            dto.setPaymentAllocations(allocationDTOs);
-        }
-        
-        return dto;
-    }
-    
-    /**
-     * Converts PaymentAllocation to DTO, computing status and percentage.
-     * This is a simplified version that reuses the same logic from PaymentAllocationService.
-     */
-    private com.loantracking.dto.PaymentAllocationDTO convertPaymentAllocationToDTO(PaymentAllocation allocation) {
-        Entry entry = allocation.getEntry();
-        com.loantracking.dto.PaymentAllocationDTO dto = new com.loantracking.dto.PaymentAllocationDTO();
-        dto.setAllocationId(allocation.getAllocationId());
-        dto.setEntryId(allocation.getEntry().getEntryId());
-        dto.setPersonId(allocation.getPerson().getPersonId());
-        dto.setPersonName(allocation.getPerson().getFullName());
-        dto.setDescription(allocation.getDescription());
-        dto.setAmount(allocation.getAmount());
-        dto.setNotes(allocation.getNotes());
-        
-        // Compute status based on payments made for this allocation
-        dto.setPaymentAllocationStatus(computePaymentAllocationStatus(allocation, entry));
-        
-        // Compute percentage of total
-        if (entry.getAmountBorrowed().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal percentage = allocation.getAmount()
-                    .divide(entry.getAmountBorrowed(), 4, java.math.RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-            dto.setPercentageOfTotal(percentage);
-        } else {
-            dto.setPercentageOfTotal(BigDecimal.ZERO);
-        }
-        
-        return dto;
-    }
-    
-    /**
-     * Compute payment allocation status based on payments made
-     * UNPAID: No payments made for this allocation
-     * PARTIALLY_PAID: Some payments made, but less than allocated amount
-     * PAID: Payments made equal or exceed allocated amount, OR entry is marked as PAID (completed)
-     */
-    private com.loantracking.model.PaymentAllocationStatus computePaymentAllocationStatus(PaymentAllocation allocation, Entry entry) {
-        // If the entry is marked as PAID (completed), all allocations are considered PAID
-        if (entry.getStatus() == PaymentStatus.PAID) {
-            return com.loantracking.model.PaymentAllocationStatus.PAID;
-        }
-        
-        // Use linked allocation payments (more precise tracking)
-        List<PaymentAllocationPayment> linkedPayments = 
-            paymentAllocationPaymentRepository.findByAllocation_AllocationId(allocation.getAllocationId());
-        
-        if (!linkedPayments.isEmpty()) {
-            // Use linked payments - sum amounts specifically allocated to this allocation
-            BigDecimal totalPaid = linkedPayments.stream()
-                    .map(PaymentAllocationPayment::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Compare with allocated amount
-            if (totalPaid.compareTo(BigDecimal.ZERO) == 0) {
-                return com.loantracking.model.PaymentAllocationStatus.UNPAID;
-            } else if (totalPaid.compareTo(allocation.getAmount()) < 0) {
-                return com.loantracking.model.PaymentAllocationStatus.PARTIALLY_PAID;
-            } else {
-                return com.loantracking.model.PaymentAllocationStatus.PAID;
-            }
-        } else {
-            // Fallback: If no linked payments, check if entry has any payments at all
-            // This is less precise but handles legacy cases
-            List<PaymentEntry> paymentEntries = paymentEntryRepository.findByEntry_EntryId(entry.getEntryId());
-            if (paymentEntries.isEmpty()) {
-                return com.loantracking.model.PaymentAllocationStatus.UNPAID;
-            } else {
-                // If entry has payments but this allocation has no linked payments,
-                // we can't determine the exact status - default to UNPAID for safety
-                return com.loantracking.model.PaymentAllocationStatus.UNPAID;
-            }
-        }
-    }
-    
-    private InstallmentPlanDTO convertInstallmentPlanToDTO(InstallmentPlan plan) {
-        InstallmentPlanDTO dto = new InstallmentPlanDTO();
-        dto.setInstallmentId(plan.getInstallmentId());
-        dto.setEntryId(plan.getEntry().getEntryId());
-        dto.setStartDate(plan.getStartDate());
-        dto.setPaymentFrequency(plan.getPaymentFrequency());
-        dto.setPaymentTerms(plan.getPaymentTerms());
-        dto.setAmountPerTerm(plan.getAmountPerTerm());
-        
-        // Extract paymentFrequencyDay and user notes from notes field
-        String paymentFrequencyDay = extractPaymentFrequencyDay(plan.getNotes());
-        dto.setPaymentFrequencyDay(paymentFrequencyDay);
-        
-        // Extract user notes if they exist
-        String userNotes = extractUserNotes(plan.getNotes());
-        dto.setNotes(userNotes);
-        
-        List<InstallmentTermDTO> terms = installmentTermRepository
-                .findByInstallmentPlan_InstallmentId(plan.getInstallmentId()).stream()
-                .map(term -> {
-                    InstallmentTermDTO termDTO = new InstallmentTermDTO();
-                    termDTO.setTermId(term.getTermId());
-                    termDTO.setInstallmentId(term.getInstallmentPlan().getInstallmentId());
-                    termDTO.setTermNumber(term.getTermNumber());
-                    termDTO.setDueDate(term.getDueDate());
-                    termDTO.setTermStatus(term.getTermStatus());
-                    termDTO.setPenaltyApplied(term.getPenaltyApplied());
-                    return termDTO;
-                })
-                .collect(Collectors.toList());
-        dto.setInstallmentTerms(terms);
-        
-        return dto;
-    }
-    
-    private String extractUserNotes(String notes) {
-        if (notes == null || notes.trim().isEmpty()) {
-            return null;
-        }
-        
-        // Try to parse as JSON first
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, String> notesData = objectMapper.readValue(notes, new TypeReference<Map<String, String>>() {});
-            return notesData.get("userNotes");
-        } catch (Exception e) {
-            // Fallback: try simple format
-            if (notes.contains("__PAYMENT_FREQUENCY_DAY__:")) {
-                int end = notes.indexOf("__", notes.indexOf("__PAYMENT_FREQUENCY_DAY__:") + "__PAYMENT_FREQUENCY_DAY__:".length());
-                if (end > 0 && end + 2 < notes.length()) {
-                    String remaining = notes.substring(end + 2).trim();
-                    return remaining.isEmpty() ? null : remaining;
-                }
-            }
-            // If no special format, return as-is (for backward compatibility)
-            return notes;
-        }
+        return entryDtoAssembler.toDTO(entry);
     }
 }
-
@@ -0,0 +1,164 @@
+package com.loantracking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loantracking.dto.EntryExportRow;
+import com.loantracking.dto.PaymentExportRow;
+import com.loantracking.repository.EntryRepository;
+import com.loantracking.repository.PaymentEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's entries or payments to an output stream as NDJSON or CSV.
+ * Rows are read from a forward-only database cursor and written one at a time,
+ * so memory use does not depend on how many rows are exported.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    // Flush to the client every this many rows so the download starts right away
+    private static final int FLUSH_EVERY_ROWS = 200;
+
+    private static final String[] ENTRY_COLUMNS = {
+            "entryId", "referenceId", "entryName", "description", "transactionType", "status",
+            "dateBorrowed", "dateFullyPaid", "amountBorrowed", "amountRemaining", "paymentMethod",
+            "lenderPersonId", "lenderPersonName", "borrowerPersonId", "borrowerPersonName",
+            "borrowerGroupId", "borrowerGroupName", "notes", "createdAt"
+    };
+
+    private static final String[] PAYMENT_COLUMNS = {
+            "paymentId", "paymentDate", "paymentAmount", "changeAmount", "payeePersonId", "payeePersonName",
+            "notes", "entryId", "entryName", "entryReferenceId", "createdAt"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        Format(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.fileExtension.equalsIgnoreCase(value == null ? "" : value.trim())) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+        }
+    }
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private PaymentEntryRepository paymentEntryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Writes every entry the person is involved in (lender, borrower or borrower group member).
+     * The person id is passed in because this runs on the async response thread,
+     * where the request headers are no longer available.
+     */
+    public void writeEntries(UUID personId, Format format, OutputStream out) throws IOException {
+        try (Stream<EntryExportRow> rows = entryRepository.streamExportRowsForUser(personId)) {
+            write(rows, format, ENTRY_COLUMNS, row -> new Object[]{
+                    row.getEntryId(), row.getReferenceId(), row.getEntryName(), row.getDescription(),
+                    row.getTransactionType(), row.getStatus(), row.getDateBorrowed(), row.getDateFullyPaid(),
+                    row.getAmountBorrowed(), row.getAmountRemaining(), row.getPaymentMethod(),
+                    row.getLenderPersonId(), row.getLenderPersonName(), row.getBorrowerPersonId(),
+                    row.getBorrowerPersonName(), row.getBorrowerGroupId(), row.getBorrowerGroupName(),
+                    row.getNotes(), row.getCreatedAt()
+            }, out);
+        }
+    }
+
+    /**
+     * Writes every payment on entries the person takes part in directly, one row per payment-entry link.
+     */
+    public void writePayments(UUID personId, Format format, OutputStream out) throws IOException {
+        try (Stream<PaymentExportRow> rows = paymentEntryRepository.streamExportRowsForUser(personId)) {
+            write(rows, format, PAYMENT_COLUMNS, row -> new Object[]{
+                    row.getPaymentId(), row.getPaymentDate(), row.getPaymentAmount(), row.getChangeAmount(),
+                    row.getPayeePersonId(), row.getPayeePersonName(), row.getNotes(),
+                    row.getEntryId(), row.getEntryName(), row.getEntryReferenceId(), row.getCreatedAt()
+            }, out);
+        }
+    }
+
+    private <T> void write(Stream<T> rows, Format format, String[] header, Function<T, Object[]> columns,
+                           OutputStream out) throws IOException {
+        // The response stream is owned by the container: flush it, never close it
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(writer, header);
+            writer.flush();
+        }
+
+        int count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, columns.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting: wrap in quotes when the value has a comma, quote or line break
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
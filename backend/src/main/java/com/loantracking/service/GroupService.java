@@ -29,6 +29,9 @@ public class GroupService {
     @Autowired
     private GroupMemberRepository groupMemberRepository;
     
+    @Autowired
+    private DashboardSummaryService dashboardSummaryService;
+    
     public List<GroupDTO> getAllGroups() {
         return groupRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -83,6 +86,8 @@ public class GroupService {
         if (!groupRepository.existsById(id)) {
             throw new IllegalArgumentException("Group not found with id: " + id);
         }
+        // Members stop seeing the group's entries on their dashboards
+        dashboardSummaryService.trackGroupEntries(id);
         groupRepository.deleteById(id);
     }
     
@@ -96,6 +101,8 @@ public class GroupService {
             throw new IllegalArgumentException("Person is already a member of this group");
         }
         
+        dashboardSummaryService.trackGroupEntries(groupId);
+        
         GroupMember member = new GroupMember();
         member.setGroup(group);
         member.setPerson(person);
@@ -108,6 +115,7 @@ public class GroupService {
                 .filter(m -> m.getPerson().getPersonId().equals(personId))
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Person is not a member of this group"));
+        dashboardSummaryService.trackGroupEntries(groupId);
         groupMemberRepository.delete(member);
     }
     
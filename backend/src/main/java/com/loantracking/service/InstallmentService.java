@@ -1,26 +1,33 @@
 package com.loantracking.service;
 
 import com.loantracking.dto.InstallmentTermDTO;
+import com.loantracking.dto.UpcomingDueDTO;
+import com.loantracking.dto.UpcomingDueDayDTO;
 import com.loantracking.model.Entry;
 import com.loantracking.model.InstallmentPlan;
 import com.loantracking.model.InstallmentStatus;
 import com.loantracking.model.InstallmentTerm;
-import com.loantracking.model.Person;
 import com.loantracking.model.TransactionType;
 import com.loantracking.repository.EntryRepository;
 import com.loantracking.repository.InstallmentPlanRepository;
 import com.loantracking.repository.InstallmentTermRepository;
-import com.loantracking.repository.PersonRepository;
-import com.loantracking.util.UserContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,11 +38,68 @@ public class InstallmentService {
     private static final BigDecimal LATE_FEE_PERCENTAGE = new BigDecimal("0.05"); // 5% of term amount
     private static final BigDecimal MINIMUM_LATE_FEE = new BigDecimal("50.00"); // Minimum ₱50 late fee
     
-    @Autowired
-    private InstallmentTermRepository installmentTermRepository;
+    // Only one instance runs the nightly sweep (transaction-scoped Postgres advisory lock)
+    private static final long DELINQUENCY_SWEEP_LOCK_KEY = 0x6c6f616e_00000020L;
+    
+    // Status first, matching idx_installment_term_status_due_date: one due_date range per open status,
+    // so PAID, SKIPPED and DELINQUENT history is never read
+    private static final String LAPSED_TERM_CONDITION =
+            "t.term_status IN ('UNPAID', 'NOT_STARTED') AND t.due_date < :today";
+    
+    // Reads only the lapsed open terms (see LAPSED_TERM_CONDITION); only those reach the plan join
+    private static final String FIND_LAPSED_ENTRIES_SQL =
+            "SELECT DISTINCT p.entry_id FROM installment_term t " +
+            "JOIN installment_plan p ON p.installment_id = t.installment_id WHERE " + LAPSED_TERM_CONDITION;
+    
+    // Same scope as AccessContext.isDirectParticipant: the lender, or the person borrower (never both);
+    // for group borrowers only the lender
+    private static final String FIND_LAPSED_ENTRIES_FOR_USER_SQL =
+            "SELECT DISTINCT p.entry_id FROM installment_term t " +
+            "JOIN installment_plan p ON p.installment_id = t.installment_id " +
+            "JOIN entry e ON e.entry_id = p.entry_id WHERE " + LAPSED_TERM_CONDITION + " " +
+            "AND CASE WHEN e.borrower_group_id IS NOT NULL THEN e.lender_person_id = :personId " +
+            "ELSE (e.lender_person_id = :personId) <> (e.borrower_person_id IS NOT DISTINCT FROM :personId) END";
+    
+    // Same rules as markDelinquent, for all locked entries at once: lapsed terms become DELINQUENT, terms
+    // without a penalty get the late fee (5%, at least the minimum), which is added to the entry. Returns
+    // one row per marked term; LedgerService records the penalties, so they snapshot and publish like any other
+    private static final String SWEEP_DELINQUENT_SQL =
+            "WITH lapsed AS (" +
+            "   SELECT t.term_id, p.entry_id, CASE WHEN COALESCE(t.penalty_applied, 0) = 0 " +
+            "   THEN GREATEST(ROUND(p.amount_per_term * :lateFeePercentage, 2), :minimumLateFee) ELSE 0 END AS penalty " +
+            "   FROM installment_term t JOIN installment_plan p ON p.installment_id = t.installment_id " +
+            "   WHERE p.entry_id IN (:entryIds) AND " + LAPSED_TERM_CONDITION +
+            "), terms AS (" +
+            "   UPDATE installment_term t SET term_status = 'DELINQUENT', updated_at = :now, " +
+            "   penalty_applied = CASE WHEN l.penalty > 0 THEN l.penalty ELSE t.penalty_applied END " +
+            "   FROM lapsed l WHERE t.term_id = l.term_id RETURNING l.entry_id, t.term_id, l.penalty" +
+            "), entries AS (" +
+            "   UPDATE entry e SET amount_remaining = e.amount_remaining + l.total, updated_at = :now " +
+            "   FROM (SELECT entry_id, SUM(penalty) AS total FROM lapsed WHERE penalty > 0 GROUP BY entry_id) l " +
+            "   WHERE e.entry_id = l.entry_id RETURNING e.entry_id" +
+            ") SELECT entry_id, term_id, penalty FROM terms";
+    
+    private static final int MAX_UPCOMING_DAYS = 366;
+    
+    // Range scan of idx_installment_term_status_due_date (one per open status); plan and entry are joined
+    // by primary key, so the cost follows the number of terms due in the window, not the number of plans.
+    // Same scope as AccessContext.isRelated: lender, person borrower, or member of the borrower group
+    private static final String FIND_UPCOMING_DUES_SQL =
+            "SELECT t.due_date, t.term_id, t.term_number, t.term_status, p.amount_per_term, " +
+            "e.entry_id, e.entry_name, e.reference_id, " +
+            "CASE WHEN e.lender_person_id = :personId THEN 'LENDER' ELSE 'BORROWER' END AS user_role " +
+            "FROM installment_term t " +
+            "JOIN installment_plan p ON p.installment_id = t.installment_id " +
+            "JOIN entry e ON e.entry_id = p.entry_id " +
+            "WHERE t.term_status IN ('NOT_STARTED', 'UNPAID') AND t.due_date BETWEEN :from AND :to " +
+            "AND e.status <> 'PAID' " +
+            "AND CASE WHEN e.borrower_group_id IS NOT NULL THEN e.lender_person_id = :personId " +
+            "   OR e.borrower_group_id IN (SELECT gm.group_id FROM group_member gm WHERE gm.person_id = :personId) " +
+            "ELSE (e.lender_person_id = :personId) <> (e.borrower_person_id IS NOT DISTINCT FROM :personId) END " +
+            "ORDER BY t.due_date, e.entry_name, e.entry_id, t.term_number";
     
     @Autowired
-    private PersonRepository personRepository;
+    private InstallmentTermRepository installmentTermRepository;
     
     @Autowired
     private EntryRepository entryRepository;
@@ -43,33 +107,27 @@ public class InstallmentService {
     @Autowired
     private InstallmentPlanRepository installmentPlanRepository;
     
-    private Person getOrCreateCurrentUser() {
-        String userName = UserContext.getCurrentUserName();
-        return personRepository.findByFullName(userName)
-                .orElseGet(() -> {
-                    Person user = new Person();
-                    user.setFullName(userName);
-                    return personRepository.save(user);
-                });
-    }
+    @Autowired
+    private AccessContextService accessContextService;
     
-    private boolean isEntryRelatedToParentUser(Entry entry, UUID parentUserId) {
-        boolean isLender = entry.getLenderPerson() != null && 
-                          entry.getLenderPerson().getPersonId().equals(parentUserId);
-        boolean isBorrower = entry.getBorrowerPerson() != null && 
-                            entry.getBorrowerPerson().getPersonId().equals(parentUserId);
-        
-        if (entry.getBorrowerGroup() != null) {
-            return isLender;
-        }
-        
-        return isLender != isBorrower; // XOR: exactly one must be true
-    }
+    @Autowired
+    private DashboardSummaryService dashboardSummaryService;
+    
+    @Autowired
+    private EntryBalanceService entryBalanceService;
+    
+    @Autowired
+    private LedgerService ledgerService;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     private void validateTermAccess(InstallmentTerm term) {
-        Person currentUser = getOrCreateCurrentUser();
         Entry entry = term.getInstallmentPlan().getEntry();
-        if (!isEntryRelatedToParentUser(entry, currentUser.getPersonId())) {
+        if (!accessContextService.current().isDirectParticipant(entry)) {
             throw new IllegalArgumentException("Installment term not found");
         }
     }
@@ -79,12 +137,12 @@ public class InstallmentService {
                 .orElseThrow(() -> new IllegalArgumentException("Installment term not found with id: " + termId));
         
         validateTermAccess(term);
+        Entry entry = lockTermEntry(term);
+        dashboardSummaryService.trackEntry(entry.getEntryId());
         
         // Calculate late fee penalty
         InstallmentPlan plan = term.getInstallmentPlan();
-        BigDecimal termAmount = plan.getAmountPerTerm();
-        BigDecimal percentageFee = termAmount.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal penalty = percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
+        BigDecimal penalty = calculateLateFee(plan);
         
         // Update term with penalty and status
         term.setTermStatus(InstallmentStatus.SKIPPED);
@@ -92,10 +150,8 @@ public class InstallmentService {
         InstallmentTerm updated = installmentTermRepository.save(term);
         
         // Add penalty to entry's remaining balance
-        Entry entry = plan.getEntry();
-        BigDecimal newRemaining = entry.getAmountRemaining().add(penalty);
-        entry.setAmountRemaining(newRemaining);
-        entryRepository.save(entry);
+        entryBalanceService.addPenalty(entry, penalty);
+        ledgerService.recordPenalties(entry, List.of(updated));
         
         return convertToDTO(updated);
     }
@@ -108,10 +164,7 @@ public class InstallmentService {
         InstallmentTerm term = installmentTermRepository.findById(termId)
                 .orElseThrow(() -> new IllegalArgumentException("Installment term not found with id: " + termId));
         
-        InstallmentPlan plan = term.getInstallmentPlan();
-        BigDecimal termAmount = plan.getAmountPerTerm();
-        BigDecimal percentageFee = termAmount.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
-        return percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
+        return calculateLateFee(term.getInstallmentPlan());
     }
     
     /**
@@ -122,23 +175,19 @@ public class InstallmentService {
                 .orElseThrow(() -> new IllegalArgumentException("Installment term not found with id: " + termId));
         
         validateTermAccess(term);
+        Entry entry = lockTermEntry(term);
+        dashboardSummaryService.trackEntry(entry.getEntryId());
         
         // If paying a DELINQUENT term, calculate and apply late fee
         if (status == InstallmentStatus.PAID && term.getTermStatus() == InstallmentStatus.DELINQUENT) {
-            InstallmentPlan plan = term.getInstallmentPlan();
-            BigDecimal termAmount = plan.getAmountPerTerm();
-            BigDecimal percentageFee = termAmount.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
-            BigDecimal penalty = percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
-            
             // Set penalty if not already set
-            if (term.getPenaltyApplied() == null || term.getPenaltyApplied().compareTo(BigDecimal.ZERO) == 0) {
+            if (!hasPenalty(term)) {
+                BigDecimal penalty = calculateLateFee(term.getInstallmentPlan());
                 term.setPenaltyApplied(penalty);
                 
                 // Add penalty to entry's remaining balance
-                Entry entry = plan.getEntry();
-                BigDecimal newRemaining = entry.getAmountRemaining().add(penalty);
-                entry.setAmountRemaining(newRemaining);
-                entryRepository.save(entry);
+                entryBalanceService.addPenalty(entry, penalty);
+                ledgerService.recordPenalties(entry, List.of(term));
             }
         }
         
@@ -161,10 +210,7 @@ public class InstallmentService {
             return BigDecimal.ZERO;
         }
         
-        InstallmentPlan plan = term.getInstallmentPlan();
-        BigDecimal termAmount = plan.getAmountPerTerm();
-        BigDecimal percentageFee = termAmount.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
-        return percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
+        return calculateLateFee(term.getInstallmentPlan());
     }
     
     /**
@@ -174,58 +220,116 @@ public class InstallmentService {
      * - The term is not already PAID or SKIPPED
      * 
      * According to business rules: "If the borrower has not paid for a set term, and that term has lapsed"
+     * Only the current user's entries are updated, with set-based statements that read just the lapsed terms.
+     * @return the number of terms marked DELINQUENT
      */
-    public void updateDelinquentTerms() {
-        Person currentUser = getOrCreateCurrentUser();
-        UUID currentUserId = currentUser.getPersonId();
+    public int updateDelinquentTerms() {
+        AccessContext access = accessContextService.current();
         
         LocalDate today = LocalDate.now();
-        installmentTermRepository.findAll().stream()
-                .filter(term -> {
-                    Entry entry = term.getInstallmentPlan().getEntry();
-                    return isEntryRelatedToParentUser(entry, currentUserId);
-                })
-                .filter(term -> {
-                    // Term has lapsed only if due date is strictly before today
-                    boolean hasLapsed = term.getDueDate().isBefore(today);
-                    
-                    // Term hasn't been paid if status is UNPAID or NOT_STARTED
-                    boolean notPaid = term.getTermStatus() == InstallmentStatus.UNPAID || 
-                                     term.getTermStatus() == InstallmentStatus.NOT_STARTED;
-                    
-                    // Don't update terms that are already PAID or SKIPPED
-                    boolean canBecomeDelinquent = term.getTermStatus() != InstallmentStatus.PAID && 
-                                                  term.getTermStatus() != InstallmentStatus.SKIPPED;
-                    
-                    return hasLapsed && notPaid && canBecomeDelinquent;
-                })
-                .forEach(term -> {
-                    term.setTermStatus(InstallmentStatus.DELINQUENT);
-                    
-                    // Calculate and apply late fee when term becomes DELINQUENT
-                    // Only apply if penalty hasn't been set yet
-                    if (term.getPenaltyApplied() == null || term.getPenaltyApplied().compareTo(BigDecimal.ZERO) == 0) {
-                        InstallmentPlan plan = term.getInstallmentPlan();
-                        Entry entry = plan.getEntry();
-                        BigDecimal termAmount = plan.getAmountPerTerm();
-                        BigDecimal percentageFee = termAmount.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
-                        BigDecimal penalty = percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
-                        
-                        term.setPenaltyApplied(penalty);
-                        
-                        // Add penalty to entry's remaining balance
-                        BigDecimal newRemaining = entry.getAmountRemaining().add(penalty);
-                        entry.setAmountRemaining(newRemaining);
-                        entryRepository.save(entry);
-                    }
-                    
-                    installmentTermRepository.save(term);
-                });
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("today", today)
+                .addValue("personId", access.getPersonId());
+        return markLapsedTerms(jdbcTemplate.queryForList(FIND_LAPSED_ENTRIES_FOR_USER_SQL, params, UUID.class), today);
+    }
+    
+    /**
+     * Marks every lapsed term of every user DELINQUENT and applies its late fee, with set-based
+     * statements instead of loading terms. Skipped (returns 0) while another instance is running it.
+     * Meant for a background transaction that hasn't loaded any entries.
+     * @return the number of terms marked
+     */
+    public int sweepDelinquentTerms() {
+        Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(:key)",
+                new MapSqlParameterSource("key", DELINQUENCY_SWEEP_LOCK_KEY), Boolean.class);
+        if (!Boolean.TRUE.equals(acquired)) {
+            return 0;
+        }
+        
+        LocalDate today = LocalDate.now();
+        return markLapsedTerms(jdbcTemplate.queryForList(FIND_LAPSED_ENTRIES_SQL,
+                new MapSqlParameterSource("today", today), UUID.class), today);
+    }
+    
+    // Locked like any other balance change; the statement re-checks the terms under the lock
+    private int markLapsedTerms(List<UUID> entryIds, LocalDate today) {
+        List<UUID> lockedIds = entryBalanceService.lockIds(entryIds);
+        if (lockedIds.isEmpty()) {
+            return 0;
+        }
+        dashboardSummaryService.trackEntries(lockedIds);
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("entryIds", lockedIds)
+                .addValue("today", today)
+                .addValue("now", LocalDateTime.now())
+                .addValue("lateFeePercentage", LATE_FEE_PERCENTAGE)
+                .addValue("minimumLateFee", MINIMUM_LATE_FEE);
+        List<LedgerService.TermPenalty> marked = jdbcTemplate.query(SWEEP_DELINQUENT_SQL, params,
+                (rs, rowNum) -> new LedgerService.TermPenalty(
+                        rs.getObject("entry_id", UUID.class),
+                        rs.getObject("term_id", UUID.class),
+                        rs.getBigDecimal("penalty")));
+        
+        // Loaded only now (lockIds didn't), so the entries already hold the new balance
+        List<LedgerService.TermPenalty> penalties = marked.stream()
+                .filter(penalty -> penalty.amount().signum() > 0)
+                .toList();
+        if (!penalties.isEmpty()) {
+            Map<UUID, Entry> entries = entryRepository.findAllById(
+                    penalties.stream().map(LedgerService.TermPenalty::entryId).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(Entry::getEntryId, Function.identity()));
+            ledgerService.recordTermPenalties(entries, penalties, today);
+        }
+        return marked.size();
+    }
+    
+    /**
+     * Open terms of the current user's entries due from today through the next {@code days} days,
+     * grouped by due date in date order.
+     */
+    @Transactional(readOnly = true)
+    public List<UpcomingDueDayDTO> getUpcomingDues(int days) {
+        if (days < 0 || days > MAX_UPCOMING_DAYS) {
+            throw new IllegalArgumentException("days must be between 0 and " + MAX_UPCOMING_DAYS);
+        }
+        AccessContext access = accessContextService.current();
+        
+        LocalDate today = LocalDate.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("personId", access.getPersonId())
+                .addValue("from", today)
+                .addValue("to", today.plusDays(days));
+        
+        // Rows arrive in due date order, so each day's group is the last one until the date changes
+        List<UpcomingDueDayDTO> result = new ArrayList<>();
+        jdbcTemplate.query(FIND_UPCOMING_DUES_SQL, params, rs -> {
+            LocalDate dueDate = rs.getDate("due_date").toLocalDate();
+            UpcomingDueDayDTO day = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (day == null || !day.getDueDate().equals(dueDate)) {
+                day = new UpcomingDueDayDTO(dueDate, BigDecimal.ZERO, new ArrayList<>());
+                result.add(day);
+            }
+            
+            UpcomingDueDTO due = new UpcomingDueDTO();
+            due.setTermId(rs.getObject("term_id", UUID.class));
+            due.setEntryId(rs.getObject("entry_id", UUID.class));
+            due.setEntryName(rs.getString("entry_name"));
+            due.setReferenceId(rs.getString("reference_id"));
+            due.setTermNumber(rs.getInt("term_number"));
+            due.setTermStatus(InstallmentStatus.valueOf(rs.getString("term_status")));
+            due.setAmountDue(rs.getBigDecimal("amount_per_term"));
+            due.setRole(rs.getString("user_role"));
+            day.getTerms().add(due);
+            day.setTotalDue(day.getTotalDue().add(due.getAmountDue()));
+        });
+        return result;
     }
     
     /**
      * Updates delinquent terms for a specific entry.
-     * Useful when loading a single entry or after making a payment.
+     * Called after making a payment; terms of entries that are only viewed are left to the nightly sweep.
      * This method updates delinquent status regardless of user relationship,
      * as it's called when viewing entries (which may be accessible to any user).
      */
@@ -240,57 +344,99 @@ public class InstallmentService {
         
         installmentPlanRepository.findByEntry_EntryId(entryId).ifPresent(plan -> {
             LocalDate today = LocalDate.now();
-            boolean updated = false;
             
             List<InstallmentTerm> termsToUpdate = installmentTermRepository
                     .findByInstallmentPlan_InstallmentId(plan.getInstallmentId())
                     .stream()
-                    .filter(term -> {
-                        // Term has lapsed only if due date is strictly before today
-                        boolean hasLapsed = term.getDueDate().isBefore(today);
-                        
-                        // Term hasn't been paid if status is UNPAID or NOT_STARTED
-                        boolean notPaid = term.getTermStatus() == InstallmentStatus.UNPAID || 
-                                         term.getTermStatus() == InstallmentStatus.NOT_STARTED;
-                        
-                        // Don't update terms that are already PAID or SKIPPED
-                        boolean canBecomeDelinquent = term.getTermStatus() != InstallmentStatus.PAID && 
-                                                      term.getTermStatus() != InstallmentStatus.SKIPPED;
-                        
-                        return hasLapsed && notPaid && canBecomeDelinquent;
-                    })
+                    .filter(term -> canBecomeDelinquent(term, today))
                     .collect(Collectors.toList());
             
-            // Update all eligible terms
-            for (InstallmentTerm term : termsToUpdate) {
-                term.setTermStatus(InstallmentStatus.DELINQUENT);
-                
-                // Calculate and apply late fee when term becomes DELINQUENT
-                // Only apply if penalty hasn't been set yet
-                if (term.getPenaltyApplied() == null || term.getPenaltyApplied().compareTo(BigDecimal.ZERO) == 0) {
-                    BigDecimal termAmount = plan.getAmountPerTerm();
-                    BigDecimal percentageFee = termAmount.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
-                    BigDecimal penalty = percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
-                    
-                    term.setPenaltyApplied(penalty);
-                    
-                    // Add penalty to entry's remaining balance
-                    BigDecimal newRemaining = entry.getAmountRemaining().add(penalty);
-                    entry.setAmountRemaining(newRemaining);
-                }
-                
-                installmentTermRepository.save(term);
-                updated = true;
+            // Viewing an entry usually finds nothing to do, so the lock is only taken when there is
+            if (termsToUpdate.isEmpty()) {
+                return;
             }
+            entryBalanceService.lock(entryId);
+            dashboardSummaryService.trackEntry(entryId);
             
-            // Save entry if any penalties were applied
-            if (updated) {
-                entryRepository.save(entry);
+            if (markDelinquent(entry, termsToUpdate, today)) {
                 installmentTermRepository.flush();
             }
         });
     }
     
+    /**
+     * Marks lapsed terms DELINQUENT and adds their late fees to the balance in one update.
+     * The entry must be locked; the terms are re-read under the lock, so a concurrent
+     * request that already marked them doesn't get the penalty applied twice.
+     * @return whether any term was updated
+     */
+    private boolean markDelinquent(Entry entry, List<InstallmentTerm> candidates, LocalDate today) {
+        BigDecimal penalties = BigDecimal.ZERO;
+        List<InstallmentTerm> penalized = new ArrayList<>();
+        boolean updated = false;
+        
+        for (InstallmentTerm term : candidates) {
+            entityManager.refresh(term);
+            if (!canBecomeDelinquent(term, today)) {
+                continue;
+            }
+            term.setTermStatus(InstallmentStatus.DELINQUENT);
+            
+            // Calculate and apply late fee when term becomes DELINQUENT
+            // Only apply if penalty hasn't been set yet
+            if (!hasPenalty(term)) {
+                BigDecimal penalty = calculateLateFee(term.getInstallmentPlan());
+                term.setPenaltyApplied(penalty);
+                penalties = penalties.add(penalty);
+                penalized.add(term);
+            }
+            
+            installmentTermRepository.save(term);
+            updated = true;
+        }
+        
+        // Add penalties to entry's remaining balance
+        if (penalties.signum() > 0) {
+            entryBalanceService.addPenalty(entry, penalties);
+            ledgerService.recordPenalties(entry, penalized);
+        }
+        return updated;
+    }
+    
+    /**
+     * A term becomes DELINQUENT if:
+     * - The term's due date has lapsed (is strictly before today)
+     * - The term status is UNPAID or NOT_STARTED (term has not been paid, so not PAID or SKIPPED)
+     */
+    private static boolean canBecomeDelinquent(InstallmentTerm term, LocalDate today) {
+        boolean hasLapsed = term.getDueDate().isBefore(today);
+        boolean notPaid = term.getTermStatus() == InstallmentStatus.UNPAID ||
+                         term.getTermStatus() == InstallmentStatus.NOT_STARTED;
+        return hasLapsed && notPaid;
+    }
+    
+    private static boolean hasPenalty(InstallmentTerm term) {
+        return term.getPenaltyApplied() != null && term.getPenaltyApplied().compareTo(BigDecimal.ZERO) != 0;
+    }
+    
+    private static BigDecimal calculateLateFee(InstallmentPlan plan) {
+        return calculateLateFee(plan.getAmountPerTerm());
+    }
+    
+    // 5% of the term amount, at least the minimum late fee
+    static BigDecimal calculateLateFee(BigDecimal amountPerTerm) {
+        BigDecimal percentageFee = amountPerTerm.multiply(LATE_FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
+        return percentageFee.compareTo(MINIMUM_LATE_FEE) > 0 ? percentageFee : MINIMUM_LATE_FEE;
+    }
+    
+    // Locks the term's entry, then re-reads the term so its status is the one committed before the lock
+    private Entry lockTermEntry(InstallmentTerm term) {
+        Entry entry = entryBalanceService.lock(term.getInstallmentPlan().getEntry().getEntryId())
+                .orElseThrow(() -> new IllegalArgumentException("Installment term not found"));
+        entityManager.refresh(term);
+        return entry;
+    }
+    
     private InstallmentTermDTO convertToDTO(InstallmentTerm term) {
         InstallmentTermDTO dto = new InstallmentTermDTO();
         dto.setTermId(term.getTermId());
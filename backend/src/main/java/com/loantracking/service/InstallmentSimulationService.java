@@ -0,0 +1,170 @@
+package com.loantracking.service;
+
+import com.loantracking.dto.InstallmentSimulationDTO;
+import com.loantracking.dto.SimulateInstallmentRequest;
+import com.loantracking.dto.SimulatedTermDTO;
+import com.loantracking.model.PaymentFrequency;
+import com.loantracking.util.InstallmentSchedule;
+import com.loantracking.util.InstallmentSchedule.ScheduleRule;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * What-if schedules for installment plans that haven't been created. Uses the same rules as
+ * creating an installment entry (amount per term, due dates, late fees) but only computes in memory;
+ * nothing is read from or written to the database.
+ * Large batches are split over a dedicated fork-join pool so they don't occupy the common pool.
+ */
+@Service
+public class InstallmentSimulationService {
+
+    static final int MAX_SIMULATIONS = 1000;
+    static final int MAX_SIMULATED_TERMS = 520; // Ten years of weekly terms
+
+    // Plans simulated by one fork-join task before it stops splitting
+    private static final int PLANS_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+
+    public InstallmentSimulationService(@Value("${app.installments.simulation-parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("installment-simulation-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    /**
+     * Simulates every plan; a plan with invalid values gets an error instead of failing the batch.
+     * @return one result per request item, in request order
+     */
+    public List<InstallmentSimulationDTO> simulate(List<SimulateInstallmentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one plan is required");
+        }
+        if (requests.size() > MAX_SIMULATIONS) {
+            throw new IllegalArgumentException("A batch can contain at most " + MAX_SIMULATIONS + " plans");
+        }
+
+        InstallmentSimulationDTO[] results = new InstallmentSimulationDTO[requests.size()];
+        SimulationTask task = new SimulationTask(requests, results, 0, requests.size());
+        if (requests.size() <= PLANS_PER_TASK) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return Arrays.asList(results);
+    }
+
+    private InstallmentSimulationDTO simulate(int index, SimulateInstallmentRequest request) {
+        InstallmentSimulationDTO result = new InstallmentSimulationDTO();
+        result.setIndex(index);
+        try {
+            simulate(request, result);
+        } catch (IllegalArgumentException e) {
+            result.setError(e.getMessage());
+        }
+        return result;
+    }
+
+    // Same validation and rounding as EntryService.createInstallmentPlan
+    private void simulate(SimulateInstallmentRequest request, InstallmentSimulationDTO result) {
+        if (request == null) {
+            throw new IllegalArgumentException("Plan is required");
+        }
+        if (request.getAmountBorrowed() == null || request.getAmountBorrowed().signum() <= 0) {
+            throw new IllegalArgumentException("Amount borrowed must be greater than 0");
+        }
+        if (request.getStartDate() == null) {
+            throw new IllegalArgumentException("Installment start date is required");
+        }
+        if (request.getPaymentFrequency() == null || request.getPaymentFrequency().trim().isEmpty()) {
+            throw new IllegalArgumentException("Payment frequency is required");
+        }
+        if (request.getPaymentTerms() == null || request.getPaymentTerms() <= 0) {
+            throw new IllegalArgumentException("Payment terms must be greater than 0");
+        }
+        if (request.getPaymentTerms() > MAX_SIMULATED_TERMS) {
+            throw new IllegalArgumentException("Payment terms can be at most " + MAX_SIMULATED_TERMS);
+        }
+
+        PaymentFrequency frequency;
+        try {
+            frequency = PaymentFrequency.valueOf(request.getPaymentFrequency().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid payment frequency: " + request.getPaymentFrequency());
+        }
+
+        int paymentTerms = request.getPaymentTerms();
+        BigDecimal amountBorrowed = request.getAmountBorrowed().setScale(2, RoundingMode.HALF_UP);
+        BigDecimal amountPerTerm = InstallmentSchedule.amountPerTerm(amountBorrowed, paymentTerms);
+        if (amountPerTerm.signum() <= 0) {
+            throw new IllegalArgumentException("Amount per term would be " + amountPerTerm + "; use fewer payment terms");
+        }
+        BigDecimal remainder = amountBorrowed.subtract(amountPerTerm.multiply(BigDecimal.valueOf(paymentTerms)));
+        BigDecimal lateFee = InstallmentService.calculateLateFee(amountPerTerm);
+
+        ScheduleRule rule = InstallmentSchedule.rule(frequency, request.getPaymentFrequencyDay());
+        List<SimulatedTermDTO> terms = new ArrayList<>(paymentTerms);
+        LocalDate dueDate = rule.firstDueDate(request.getStartDate());
+        for (int i = 1; i <= paymentTerms; i++) {
+            BigDecimal amountDue = i == paymentTerms ? amountPerTerm.add(remainder) : amountPerTerm;
+            terms.add(new SimulatedTermDTO(i, dueDate, amountDue));
+            dueDate = rule.nextDueDate(dueDate);
+        }
+
+        result.setPaymentFrequency(frequency);
+        result.setPaymentFrequencyDay(rule.paymentFrequencyDay());
+        result.setAmountPerTerm(amountPerTerm);
+        result.setRoundingRemainder(remainder);
+        result.setLateFeePerTerm(lateFee);
+        result.setMaxPenaltyExposure(lateFee.multiply(BigDecimal.valueOf(paymentTerms)));
+        result.setTerms(terms);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Halves the index range until it is small enough, then simulates it in place
+    private class SimulationTask extends RecursiveAction {
+
+        private final List<SimulateInstallmentRequest> requests;
+        private final InstallmentSimulationDTO[] results;
+        private final int from;
+        private final int to;
+
+        SimulationTask(List<SimulateInstallmentRequest> requests, InstallmentSimulationDTO[] results, int from, int to) {
+            this.requests = requests;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PLANS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    results[i] = simulate(i, requests.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SimulationTask(requests, results, from, middle),
+                    new SimulationTask(requests, results, middle, to));
+        }
+    }
+}
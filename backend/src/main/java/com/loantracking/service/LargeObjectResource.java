@@ -0,0 +1,138 @@
+package com.loantracking.service;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A PostgreSQL large object (attachment.file_data) exposed as a Spring Resource.
+ * The stream reads the object in chunks with lo_get(oid, offset, length), so only one
+ * chunk is in memory at a time and skip() costs nothing - Range requests read just the
+ * bytes they ask for. Each chunk borrows a pooled connection only for the duration of
+ * its query, so a slow client never holds a connection.
+ */
+class LargeObjectResource extends AbstractResource {
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private static final String READ_CHUNK_SQL = "SELECT lo_get(:oid, :offset, :length)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final long oid;
+    private final long contentLength;
+    private final String filename;
+
+    LargeObjectResource(NamedParameterJdbcTemplate jdbcTemplate, long oid, long contentLength, String filename) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.oid = oid;
+        this.contentLength = contentLength;
+        this.filename = filename;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "large object " + oid;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ChunkedInputStream();
+    }
+
+    private byte[] readChunk(long offset, int length) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("oid", oid)
+                .addValue("offset", offset)
+                .addValue("length", length);
+        return jdbcTemplate.queryForObject(READ_CHUNK_SQL, params, byte[].class);
+    }
+
+    private class ChunkedInputStream extends InputStream {
+
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int chunkPosition;
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[chunkPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.length - chunkPosition);
+            System.arraycopy(chunk, chunkPosition, b, off, n);
+            chunkPosition += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            int buffered = chunk.length - chunkPosition;
+            if (n <= buffered) {
+                chunkPosition += (int) n;
+                return n;
+            }
+            // Drop the buffered chunk and move the read offset; nothing is fetched for skipped bytes
+            long skipped = Math.min(n, buffered + (contentLength - position));
+            position += skipped - buffered;
+            chunk = new byte[0];
+            chunkPosition = 0;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkPosition;
+        }
+
+        // Loads the next chunk when the current one is used up; false at end of object
+        private boolean fill() throws IOException {
+            if (chunkPosition < chunk.length) {
+                return true;
+            }
+            if (position >= contentLength) {
+                return false;
+            }
+            int length = (int) Math.min(CHUNK_SIZE, contentLength - position);
+            byte[] next = readChunk(position, length);
+            if (next == null || next.length == 0) {
+                throw new IOException("Unexpected end of " + getDescription() + " at offset " + position);
+            }
+            chunk = next;
+            chunkPosition = 0;
+            position += next.length;
+            return true;
+        }
+    }
+}
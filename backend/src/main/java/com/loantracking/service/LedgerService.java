@@ -0,0 +1,303 @@
+package com.loantracking.service;
+
+import com.loantracking.model.Entry;
+import com.loantracking.model.InstallmentTerm;
+import com.loantracking.model.LedgerEventType;
+import com.loantracking.model.Payment;
+import com.loantracking.model.PaymentEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Append-only record of every change to an entry's balance (ledger_event), with periodic
+ * per-entry snapshots (entry_balance_snapshot). A balance is the latest snapshot plus the
+ * events after it, so it never needs the full payment history, and can be taken as of any date.
+ * Events are written by the same transaction that changes amount_remaining, while the entry
+ * is locked (see EntryBalanceService), so the events of an entry always add up to it.
+ * After each change an EntryBalanceChangedEvent is published for the entries involved.
+ */
+@Service
+@Transactional
+public class LedgerService {
+
+    // Open end of "current balance": every event counts, including post-dated payments
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_event (entry_id, event_type, amount, effective_date, payment_id, term_id, created_at) " +
+            "VALUES (:entryId, :eventType, :amount, :effectiveDate, :paymentId, :termId, :createdAt)";
+
+    // Latest snapshot on or before :asOf, plus the events it doesn't cover: newer ones, and older
+    // ones dated after the snapshot (back-dated payments). Both tails are index range scans.
+    private static final String BALANCES_SQL =
+            "SELECT e.entry_id, COALESCE(s.balance, 0) " +
+            "+ COALESCE((SELECT SUM(l.amount) FROM ledger_event l WHERE l.entry_id = e.entry_id " +
+            "   AND l.event_id > COALESCE(s.last_event_id, 0) AND l.effective_date <= :asOf), 0) " +
+            "+ COALESCE((SELECT SUM(l.amount) FROM ledger_event l WHERE l.entry_id = e.entry_id " +
+            "   AND l.event_id <= s.last_event_id AND l.effective_date > s.as_of_date AND l.effective_date <= :asOf), 0) " +
+            "AS balance " +
+            "FROM entry e " +
+            "LEFT JOIN LATERAL (SELECT last_event_id, as_of_date, balance FROM entry_balance_snapshot " +
+            "   WHERE entry_id = e.entry_id AND as_of_date <= :asOf " +
+            "   ORDER BY as_of_date DESC, last_event_id DESC LIMIT 1) s ON true " +
+            "WHERE e.entry_id IN (:entryIds) " +
+            "AND EXISTS (SELECT 1 FROM ledger_event l WHERE l.entry_id = e.entry_id)";
+
+    private static final String EVENTS_SINCE_SNAPSHOT_SQL =
+            "SELECT count(*) FROM ledger_event l WHERE l.entry_id = :entryId AND l.event_id > " +
+            "COALESCE((SELECT max(last_event_id) FROM entry_balance_snapshot WHERE entry_id = :entryId), 0)";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO entry_balance_snapshot (entry_id, last_event_id, as_of_date, balance, created_at) " +
+            "SELECT :entryId, max(event_id), :asOf, :balance, :createdAt FROM ledger_event WHERE entry_id = :entryId";
+
+    // Entries from before the ledger; locked like any other balance change
+    private static final String FIND_UNRECORDED_SQL =
+            "SELECT e.entry_id FROM entry e " +
+            "WHERE NOT EXISTS (SELECT 1 FROM ledger_event l WHERE l.entry_id = e.entry_id) " +
+            "ORDER BY e.entry_id LIMIT :limit FOR NO KEY UPDATE SKIP LOCKED";
+
+    private static final String FIND_UNRECORDED_AMONG_SQL =
+            "SELECT e.entry_id FROM entry e WHERE e.entry_id IN (:entryIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM ledger_event l WHERE l.entry_id = e.entry_id)";
+
+    // History rebuilt from what the tables still show: principal, payments less change, term penalties
+    private static final String BACKFILL_HISTORY_SQL =
+            "INSERT INTO ledger_event (entry_id, event_type, amount, effective_date, payment_id, term_id, created_at) " +
+            "SELECT h.entry_id, h.event_type, h.amount, h.effective_date, h.payment_id, h.term_id, :createdAt FROM (" +
+            "   SELECT e.entry_id, 'PRINCIPAL' AS event_type, e.amount_borrowed AS amount, " +
+            "   COALESCE(e.date_borrowed, e.created_at::date, :today) AS effective_date, " +
+            "   NULL::uuid AS payment_id, NULL::uuid AS term_id, 0 AS seq " +
+            "   FROM entry e WHERE e.entry_id IN (:entryIds) " +
+            "   UNION ALL SELECT pe.entry_id, 'PAYMENT', -(p.payment_amount - COALESCE(p.change_amount, 0)), " +
+            "   COALESCE(p.payment_date, p.created_at::date, :today), p.payment_id, NULL, 1 " +
+            "   FROM payment_entry pe JOIN payment p ON p.payment_id = pe.payment_id WHERE pe.entry_id IN (:entryIds) " +
+            "   UNION ALL SELECT pl.entry_id, 'PENALTY', t.penalty_applied, t.due_date, NULL, t.term_id, 1 " +
+            "   FROM installment_term t JOIN installment_plan pl ON pl.installment_id = t.installment_id " +
+            "   WHERE pl.entry_id IN (:entryIds) AND t.penalty_applied > 0" +
+            ") h WHERE NOT EXISTS (SELECT 1 FROM ledger_event l WHERE l.entry_id = h.entry_id) " +
+            "ORDER BY h.entry_id, h.effective_date, h.seq";
+
+    // Whatever the rebuilt history doesn't explain (completions, edits) becomes one adjustment,
+    // so the events add up to amount_remaining
+    private static final String BACKFILL_ADJUSTMENT_SQL =
+            "INSERT INTO ledger_event (entry_id, event_type, amount, effective_date, payment_id, term_id, created_at) " +
+            "SELECT e.entry_id, 'ADJUSTMENT', e.amount_remaining - COALESCE(SUM(l.amount), 0), :today, NULL, NULL, :createdAt " +
+            "FROM entry e LEFT JOIN ledger_event l ON l.entry_id = e.entry_id " +
+            "WHERE e.entry_id IN (:entryIds) GROUP BY e.entry_id, e.amount_remaining " +
+            "HAVING e.amount_remaining - COALESCE(SUM(l.amount), 0) <> 0";
+
+    private static final String BACKFILL_SNAPSHOT_SQL =
+            "INSERT INTO entry_balance_snapshot (entry_id, last_event_id, as_of_date, balance, created_at) " +
+            "SELECT entry_id, max(event_id), :today, COALESCE(SUM(amount) FILTER (WHERE effective_date <= :today), 0), :createdAt " +
+            "FROM ledger_event WHERE entry_id IN (:entryIds) GROUP BY entry_id";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.ledger.snapshot-every:50}")
+    private int snapshotEvery;
+
+    /**
+     * Records the amount borrowed of a new entry (which must already be flushed).
+     */
+    public void recordPrincipal(Entry entry) {
+        LocalDate dateBorrowed = entry.getDateBorrowed() != null ? entry.getDateBorrowed() : LocalDate.now();
+        insert(List.of(event(entry, LedgerEventType.PRINCIPAL, entry.getAmountBorrowed(), dateBorrowed, null, null)));
+    }
+
+    /**
+     * Records new payments; each reduces the balance by its amount less the change given back.
+     */
+    public void recordPayments(Collection<PaymentEntry> paymentEntries) {
+        List<LedgerRow> events = new ArrayList<>(paymentEntries.size());
+        for (PaymentEntry paymentEntry : paymentEntries) {
+            Payment payment = paymentEntry.getPayment();
+            BigDecimal change = payment.getChangeAmount() != null ? payment.getChangeAmount() : BigDecimal.ZERO;
+            events.add(event(paymentEntry.getEntry(), LedgerEventType.PAYMENT,
+                    payment.getPaymentAmount().subtract(change).negate(), payment.getPaymentDate(), payment.getPaymentId(), null));
+        }
+        insert(events);
+    }
+
+    /**
+     * Records the balance change caused by editing a payment's amount.
+     */
+    public void recordPaymentChange(Entry entry, Payment payment, BigDecimal change) {
+        insert(List.of(event(entry, LedgerEventType.PAYMENT, change, payment.getPaymentDate(), payment.getPaymentId(), null)));
+    }
+
+    /**
+     * Records the late fees just set on the terms (penaltyApplied).
+     */
+    public void recordPenalties(Entry entry, Collection<InstallmentTerm> terms) {
+        List<LedgerRow> events = new ArrayList<>(terms.size());
+        for (InstallmentTerm term : terms) {
+            events.add(event(entry, LedgerEventType.PENALTY, term.getPenaltyApplied(), LocalDate.now(), null, term.getTermId()));
+        }
+        insert(events);
+    }
+
+    /**
+     * Records late fees applied by a set-based update (InstallmentService's delinquency sweep).
+     * The entries must have been loaded after that update, so they hold the new balance.
+     */
+    public void recordTermPenalties(Map<UUID, Entry> entries, Collection<TermPenalty> penalties, LocalDate effectiveDate) {
+        List<LedgerRow> events = new ArrayList<>(penalties.size());
+        for (TermPenalty penalty : penalties) {
+            events.add(event(entries.get(penalty.entryId()), LedgerEventType.PENALTY, penalty.amount(),
+                    effectiveDate, null, penalty.termId()));
+        }
+        insert(events);
+    }
+
+    public void recordAdjustment(Entry entry, BigDecimal change) {
+        insert(List.of(event(entry, LedgerEventType.ADJUSTMENT, change, LocalDate.now(), null, null)));
+    }
+
+    public void recordCompletion(Entry entry, BigDecimal change) {
+        insert(List.of(event(entry, LedgerEventType.COMPLETION, change, LocalDate.now(), null, null)));
+    }
+
+    /**
+     * Balance of the entry counting the events effective on or before the date;
+     * empty for entries the ledger has no events for yet.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> balanceAsOf(UUID entryId, LocalDate asOf) {
+        return Optional.ofNullable(balancesAsOf(List.of(entryId), asOf).get(entryId));
+    }
+
+    /**
+     * Current ledger balances; entries without events are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, BigDecimal> currentBalances(Collection<UUID> entryIds) {
+        return balancesAsOf(entryIds, LATEST_DATE);
+    }
+
+    /**
+     * Gives up to {@code limit} entries from before the ledger their history and a snapshot.
+     * @return the number of entries backfilled
+     */
+    public int backfill(int limit) {
+        List<UUID> entryIds = jdbcTemplate.queryForList(FIND_UNRECORDED_SQL,
+                new MapSqlParameterSource("limit", limit), UUID.class);
+        recordHistory(entryIds);
+        return entryIds.size();
+    }
+
+    /**
+     * Backfills the given entries right away if the background backfill hasn't reached them,
+     * so their next change is added to a complete history. The entries must be locked.
+     */
+    public void startHistory(Collection<UUID> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        recordHistory(jdbcTemplate.queryForList(FIND_UNRECORDED_AMONG_SQL,
+                new MapSqlParameterSource("entryIds", entryIds), UUID.class));
+    }
+
+    private void recordHistory(List<UUID> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("entryIds", entryIds)
+                .addValue("today", LocalDate.now())
+                .addValue("createdAt", LocalDateTime.now());
+        jdbcTemplate.update(BACKFILL_HISTORY_SQL, params);
+        jdbcTemplate.update(BACKFILL_ADJUSTMENT_SQL, params);
+        jdbcTemplate.update(BACKFILL_SNAPSHOT_SQL, params);
+    }
+
+    private Map<UUID, BigDecimal> balancesAsOf(Collection<UUID> entryIds, LocalDate asOf) {
+        Map<UUID, BigDecimal> balances = new HashMap<>();
+        if (entryIds.isEmpty()) {
+            return balances;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("entryIds", entryIds)
+                .addValue("asOf", asOf);
+        jdbcTemplate.query(BALANCES_SQL, params, rs -> {
+            balances.put(rs.getObject("entry_id", UUID.class), rs.getBigDecimal("balance"));
+        });
+        return balances;
+    }
+
+    private LedgerRow event(Entry entry, LedgerEventType type, BigDecimal amount,
+                            LocalDate effectiveDate, UUID paymentId, UUID termId) {
+        return new LedgerRow(entry, new MapSqlParameterSource()
+                .addValue("entryId", entry.getEntryId())
+                .addValue("eventType", type.name())
+                .addValue("amount", amount)
+                .addValue("effectiveDate", effectiveDate)
+                .addValue("paymentId", paymentId, Types.OTHER)
+                .addValue("termId", termId, Types.OTHER)
+                .addValue("createdAt", LocalDateTime.now()));
+    }
+
+    private void insert(List<LedgerRow> events) {
+        // A zero change isn't a change
+        List<LedgerRow> changes = events.stream()
+                .filter(event -> event.amount().signum() != 0)
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes.stream().map(LedgerRow::params).toArray(MapSqlParameterSource[]::new));
+
+        Map<UUID, Entry> entries = new LinkedHashMap<>();
+        changes.forEach(event -> entries.putIfAbsent(event.entry().getEntryId(), event.entry()));
+        entries.keySet().forEach(this::snapshotIfDue);
+        eventPublisher.publishEvent(new EntryBalanceChangedEvent(entries.values()));
+    }
+
+    // Every snapshotEvery events an entry gets a new snapshot, which bounds the tail a balance reads
+    private void snapshotIfDue(UUID entryId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("entryId", entryId);
+        Long sinceSnapshot = jdbcTemplate.queryForObject(EVENTS_SINCE_SNAPSHOT_SQL, params, Long.class);
+        if (sinceSnapshot == null || sinceSnapshot < snapshotEvery) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        params.addValue("asOf", today)
+                .addValue("balance", balancesAsOf(List.of(entryId), today).get(entryId))
+                .addValue("createdAt", LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SNAPSHOT_SQL, params);
+    }
+
+    /**
+     * A late fee set on a term outside the persistence context.
+     */
+    public record TermPenalty(UUID entryId, UUID termId, BigDecimal amount) {
+    }
+
+    private record LedgerRow(Entry entry, MapSqlParameterSource params) {
+        BigDecimal amount() {
+            return (BigDecimal) params.getValue("amount");
+        }
+    }
+}
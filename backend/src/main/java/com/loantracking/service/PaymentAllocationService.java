@@ -6,6 +6,7 @@ import com.loantracking.model.Entry;
 import com.loantracking.model.PaymentAllocation;
 import com.loantracking.model.PaymentAllocationStatus;
 import com.loantracking.model.PaymentEntry;
+import com.loantracking.model.PaymentStatus;
 import com.loantracking.model.Person;
 import com.loantracking.repository.EntryRepository;
 import com.loantracking.repository.PaymentAllocationRepository;
@@ -13,7 +14,6 @@ import com.loantracking.repository.PaymentAllocationPaymentRepository;
 import com.loantracking.repository.PaymentEntryRepository;
 import com.loantracking.repository.PersonRepository;
 import com.loantracking.model.PaymentAllocationPayment;
-import com.loantracking.util.UserContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,37 +42,16 @@ public class PaymentAllocationService {
     @Autowired
     private PaymentAllocationPaymentRepository paymentAllocationPaymentRepository;
     
-    private Person getOrCreateCurrentUser() {
-        String userName = UserContext.getCurrentUserName();
-        return personRepository.findByFullName(userName)
-                .orElseGet(() -> {
-                    Person user = new Person();
-                    user.setFullName(userName);
-                    return personRepository.save(user);
-                });
-    }
-    
-    private boolean isEntryRelatedToParentUser(Entry entry, UUID parentUserId) {
-        boolean isLender = entry.getLenderPerson() != null && 
-                          entry.getLenderPerson().getPersonId().equals(parentUserId);
-        boolean isBorrower = entry.getBorrowerPerson() != null && 
-                            entry.getBorrowerPerson().getPersonId().equals(parentUserId);
-        
-        if (entry.getBorrowerGroup() != null) {
-            return isLender;
-        }
-        
-        return isLender != isBorrower; // XOR: exactly one must be true
-    }
+    @Autowired
+    private AccessContextService accessContextService;
     
     public List<PaymentAllocationDTO> getAllPaymentAllocations() {
-        Person currentUser = getOrCreateCurrentUser();
-        UUID currentUserId = currentUser.getPersonId();
+        AccessContext access = accessContextService.current();
         
         return paymentAllocationRepository.findAll().stream()
                 .filter(allocation -> {
                     Entry entry = allocation.getEntry();
-                    return isEntryRelatedToParentUser(entry, currentUserId);
+                    return access.isDirectParticipant(entry);
                 })
                 .map(allocation -> {
                     Entry entry = allocation.getEntry();
@@ -99,8 +78,7 @@ public class PaymentAllocationService {
                 .orElseThrow(() -> new IllegalArgumentException("Payment allocation not found with id: " + id));
         Entry entry = allocation.getEntry();
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isEntryRelatedToParentUser(entry, currentUser.getPersonId())) {
+        if (!accessContextService.current().isDirectParticipant(entry)) {
             throw new IllegalArgumentException("Payment allocation not found with id: " + id);
         }
         
@@ -233,15 +211,7 @@ public class PaymentAllocationService {
             BigDecimal totalPaid = linkedPayments.stream()
                     .map(com.loantracking.model.PaymentAllocationPayment::getAmount)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Compare with allocated amount
-            if (totalPaid.compareTo(BigDecimal.ZERO) == 0) {
-                return PaymentAllocationStatus.UNPAID;
-            } else if (totalPaid.compareTo(allocation.getAmount()) >= 0) {
-                return PaymentAllocationStatus.PAID;
-            } else {
-                return PaymentAllocationStatus.PARTIALLY_PAID;
-            }
+            return computeStatus(entry.getStatus(), totalPaid, allocation.getAmount());
         }
         
         // Fallback: If no linked payments, use the old method (sum all payments by person for this entry)
@@ -253,11 +223,23 @@ public class PaymentAllocationService {
                 .filter(pe -> pe.getPayment().getPayeePerson().getPersonId().equals(allocation.getPerson().getPersonId()))
                 .map(pe -> pe.getPayment().getPaymentAmount())
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return computeStatus(entry.getStatus(), totalPaid, allocation.getAmount());
+    }
+    
+    /**
+     * Status of an allocation from the amount paid towards it (null when nothing is linked).
+     * Pure function shared with EntryDtoAssembler; no database access.
+     */
+    public static PaymentAllocationStatus computeStatus(PaymentStatus entryStatus, BigDecimal totalPaid, BigDecimal allocatedAmount) {
+        // If the entry is marked as PAID (completed), all allocations are considered PAID
+        if (entryStatus == PaymentStatus.PAID) {
+            return PaymentAllocationStatus.PAID;
+        }
         
         // Compare with allocated amount
-        if (totalPaid.compareTo(BigDecimal.ZERO) == 0) {
+        if (totalPaid == null || totalPaid.compareTo(BigDecimal.ZERO) == 0) {
             return PaymentAllocationStatus.UNPAID;
-        } else if (totalPaid.compareTo(allocation.getAmount()) >= 0) {
+        } else if (totalPaid.compareTo(allocatedAmount) >= 0) {
             return PaymentAllocationStatus.PAID;
         } else {
             return PaymentAllocationStatus.PARTIALLY_PAID;
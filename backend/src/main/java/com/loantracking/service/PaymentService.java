@@ -1,39 +1,63 @@
 package com.loantracking.service;
 
+import com.loantracking.dto.BatchPaymentItemDTO;
+import com.loantracking.dto.BatchPaymentResultDTO;
 import com.loantracking.dto.CreatePaymentRequest;
 import com.loantracking.dto.PaymentDTO;
+import com.loantracking.dto.PaymentPageDTO;
+import com.loantracking.dto.ProofFileDTO;
 import com.loantracking.model.Attachment;
 import com.loantracking.model.Entry;
 import com.loantracking.model.Payment;
+import com.loantracking.model.PaymentAllocation;
+import com.loantracking.model.PaymentAllocationPayment;
 import com.loantracking.model.PaymentEntry;
-import com.loantracking.model.PaymentStatus;
 import com.loantracking.model.Person;
 import com.loantracking.model.TransactionType;
-import com.loantracking.model.InstallmentTerm;
-import com.loantracking.model.InstallmentStatus;
 import com.loantracking.repository.AttachmentRepository;
 import com.loantracking.repository.EntryRepository;
-import com.loantracking.repository.InstallmentPlanRepository;
 import com.loantracking.repository.InstallmentTermRepository;
 import com.loantracking.repository.PaymentEntryRepository;
 import com.loantracking.repository.PaymentRepository;
 import com.loantracking.repository.PersonRepository;
-import com.loantracking.util.UserContext;
+import com.loantracking.storage.ProofSize;
+import com.loantracking.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class PaymentService {
     
+    // Upper bound for POST /api/payments/batch so one request cannot hold a transaction open indefinitely
+    static final int MAX_BATCH_PAYMENTS = 1000;
+    
+    // Upper bound for payment history pages
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Open ends of the history date range; always bound so the range can use idx_payment_date
+    private static final LocalDate EARLIEST_PAYMENT_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST_PAYMENT_DATE = LocalDate.of(9999, 12, 31);
+    
     @Autowired
     private PaymentRepository paymentRepository;
     
@@ -49,6 +73,12 @@ public class PaymentService {
     @Autowired
     private AttachmentRepository attachmentRepository;
     
+    @Autowired
+    private ProofFileService proofFileService;
+    
+    @Autowired
+    private AttachmentService attachmentService;
+    
     @Autowired
     private com.loantracking.repository.PaymentAllocationRepository paymentAllocationRepository;
     
@@ -59,56 +89,102 @@ public class PaymentService {
     private InstallmentService installmentService;
     
     @Autowired
-    private InstallmentPlanRepository installmentPlanRepository;
+    private InstallmentTermRepository installmentTermRepository;
     
     @Autowired
-    private InstallmentTermRepository installmentTermRepository;
+    private AccessContextService accessContextService;
     
-    private Person getOrCreateCurrentUser() {
-        String userName = UserContext.getCurrentUserName();
-        return personRepository.findByFullName(userName)
-                .orElseGet(() -> {
-                    Person user = new Person();
-                    user.setFullName(userName);
-                    return personRepository.save(user);
-                });
-    }
+    @Autowired
+    private DashboardSummaryService dashboardSummaryService;
     
-    private boolean isEntryRelatedToParentUser(Entry entry, UUID parentUserId) {
-        boolean isLender = entry.getLenderPerson() != null && 
-                          entry.getLenderPerson().getPersonId().equals(parentUserId);
-        boolean isBorrower = entry.getBorrowerPerson() != null && 
-                            entry.getBorrowerPerson().getPersonId().equals(parentUserId);
-        
-        if (entry.getBorrowerGroup() != null) {
-            return isLender;
-        }
-        
-        return isLender != isBorrower; // XOR: exactly one must be true
-    }
+    @Autowired
+    private EntryBalanceService entryBalanceService;
     
-    private boolean isPaymentRelatedToParentUser(Payment payment, UUID parentUserId) {
+    @Autowired
+    private LedgerService ledgerService;
+    
+    private boolean isPaymentRelatedToCurrentUser(Payment payment, AccessContext access) {
         List<PaymentEntry> paymentEntries = paymentEntryRepository.findByPayment_PaymentId(payment.getPaymentId());
         return paymentEntries.stream()
-                .anyMatch(pe -> isEntryRelatedToParentUser(pe.getEntry(), parentUserId));
+                .anyMatch(pe -> access.isDirectParticipant(pe.getEntry()));
     }
     
+    /**
+     * All payments on entries the current user takes part in directly, newest first.
+     * One joined query for payments, payees and entries plus one for proof flags.
+     */
     public List<PaymentDTO> getAllPayments() {
-        Person currentUser = getOrCreateCurrentUser();
-        UUID currentUserId = currentUser.getPersonId();
+        UUID currentUserId = accessContextService.current().getPersonId();
+        List<PaymentEntry> links = paymentEntryRepository.findHistoryForUser(currentUserId,
+                EARLIEST_PAYMENT_DATE, LATEST_PAYMENT_DATE, null, null, Pageable.unpaged());
+        
+        // A payment linked to several visible entries is listed once, with its first entry
+        Map<UUID, PaymentEntry> byPayment = new LinkedHashMap<>();
+        for (PaymentEntry link : links) {
+            byPayment.putIfAbsent(link.getPayment().getPaymentId(), link);
+        }
+        return toDTOs(new ArrayList<>(byPayment.values()));
+    }
+    
+    /**
+     * Returns one page of the current user's payment history, newest payment date first,
+     * optionally limited to a payment date range and an amount range (all bounds inclusive).
+     * Uses keyset pagination on (payment_date, payment_entry_id): pass the returned nextCursor
+     * to fetch the following page. nextCursor is null on the last page.
+     */
+    public PaymentPageDTO getPaymentHistory(String cursor, int size, LocalDate fromDate, LocalDate toDate,
+                                            BigDecimal minAmount, BigDecimal maxAmount) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        UUID currentUserId = accessContextService.current().getPersonId();
+        LocalDate from = fromDate != null ? fromDate : EARLIEST_PAYMENT_DATE;
+        LocalDate to = toDate != null ? toDate : LATEST_PAYMENT_DATE;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // Fetch one extra row to find out whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<PaymentEntry> rows;
+        Long totalCount = null;
+        BigDecimal totalAmount = null;
+        if (cursor == null || cursor.trim().isEmpty()) {
+            rows = paymentEntryRepository.findHistoryForUser(currentUserId, from, to, minAmount, maxAmount, limit);
+            Object[] totals = paymentEntryRepository.summarizeHistoryForUser(currentUserId, from, to, minAmount, maxAmount).get(0);
+            totalCount = (Long) totals[0];
+            totalAmount = (BigDecimal) totals[1];
+        } else {
+            String[] parts = PageCursor.decode(cursor.trim(), 2);
+            LocalDate cursorDate;
+            UUID cursorId;
+            try {
+                cursorDate = LocalDate.parse(parts[0]);
+                cursorId = UUID.fromString(parts[1]);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            rows = paymentEntryRepository.findHistoryForUserAfter(currentUserId, from, to, minAmount, maxAmount,
+                    cursorDate, cursorId, limit);
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<PaymentEntry> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            PaymentEntry last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(last.getPayment().getPaymentDate(), last.getPaymentEntryId());
+        }
         
-        return paymentRepository.findAll().stream()
-                .filter(payment -> isPaymentRelatedToParentUser(payment, currentUserId))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return new PaymentPageDTO(toDTOs(page), nextCursor, totalCount, totalAmount);
     }
     
     public PaymentDTO getPaymentById(UUID id) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + id));
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isPaymentRelatedToParentUser(payment, currentUser.getPersonId())) {
+        if (!isPaymentRelatedToCurrentUser(payment, accessContextService.current())) {
             throw new IllegalArgumentException("Payment not found with id: " + id);
         }
         
@@ -116,9 +192,12 @@ public class PaymentService {
     }
     
     public PaymentDTO createPayment(CreatePaymentRequest request, MultipartFile proof) {
-        Entry entry = entryRepository.findById(request.getEntryId())
+        // Locked so the change amount and the dashboard delta see the balance this payment applies to
+        Entry entry = entryBalanceService.lock(request.getEntryId())
                 .orElseThrow(() -> new IllegalArgumentException("Entry not found"));
         
+        dashboardSummaryService.trackEntry(entry.getEntryId());
+        
         // Allow creating payments for any entry by direct entry ID, regardless of user involvement
         // This enables creating payments immediately after entry creation, even if the creator
         // is not involved in the entry. This matches the behavior of getEntryById and
@@ -140,30 +219,16 @@ public class PaymentService {
         payment.setPayeePerson(payee);
         payment.setNotes(request.getNotes());
         
-        // Attach proof if provided
-        if (proof != null && !proof.isEmpty()) {
-            try {
-                payment.setProof(proof.getBytes());
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Failed to read proof file", e);
-            }
-        }
-        
         Payment saved = paymentRepository.save(payment);
 
-        // Save proof to attachment table as well (if provided)
+        // Proof bytes go to attachment storage; the attachment row keeps only their hash
         if (proof != null && !proof.isEmpty()) {
             try {
-                Attachment attachment = new Attachment();
+                Attachment attachment = attachmentService.storeUpload(proof);
                 attachment.setPayment(saved);
                 attachment.setEntry(entry);
-                attachment.setUploadedLocation("DATABASE");
-                attachment.setOriginalFilename(proof.getOriginalFilename());
-                attachment.setContentType(proof.getContentType());
-                attachment.setFileSize(proof.getSize());
-                attachment.setFileData(proof.getBytes());
                 attachmentRepository.save(attachment);
-            } catch (Exception e) {
+            } catch (IOException e) {
                 throw new IllegalArgumentException("Failed to store proof attachment", e);
             }
         }
@@ -199,6 +264,7 @@ public class PaymentService {
         
         // Update entry amount remaining and status
         updateEntryAfterPayment(entry, request.getPaymentAmount());
+        ledgerService.recordPayments(List.of(paymentEntry));
         
         // Update delinquent terms for installment entries after payment
         if (entry.getTransactionType() == TransactionType.INSTALLMENT_EXPENSE) {
@@ -208,32 +274,164 @@ public class PaymentService {
         return convertToDTO(saved);
     }
     
-    private void updateEntryAfterPayment(Entry entry, BigDecimal paymentAmount) {
-        BigDecimal newRemaining = entry.getAmountRemaining().subtract(paymentAmount);
+    /**
+     * Creates many payments in one transaction (bank-statement imports).
+     * Entries, payees and allocations are loaded with one query each, the rows are written
+     * with JDBC batching, and each entry's balance and delinquency are updated once.
+     * Items that fail validation are reported in the result and skipped; the rest are created.
+     */
+    public BatchPaymentResultDTO createPayments(List<CreatePaymentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one payment is required");
+        }
+        if (requests.size() > MAX_BATCH_PAYMENTS) {
+            throw new IllegalArgumentException("A batch can contain at most " + MAX_BATCH_PAYMENTS + " payments");
+        }
         
-        if (newRemaining.compareTo(BigDecimal.ZERO) < 0) {
-            newRemaining = BigDecimal.ZERO;
+        Set<UUID> entryIds = new HashSet<>();
+        Set<UUID> payeeIds = new HashSet<>();
+        Set<UUID> allocationIds = new HashSet<>();
+        for (CreatePaymentRequest request : requests) {
+            if (request == null) {
+                continue;
+            }
+            if (request.getEntryId() != null) {
+                entryIds.add(request.getEntryId());
+            }
+            if (request.getPayeePersonId() != null) {
+                payeeIds.add(request.getPayeePersonId());
+            }
+            if (request.getAllocationId() != null) {
+                allocationIds.add(request.getAllocationId());
+            }
         }
         
-        entry.setAmountRemaining(newRemaining);
+        Map<UUID, Entry> entries = entryBalanceService.lockAll(entryIds);
+        Map<UUID, Person> payees = personRepository.findAllById(payeeIds).stream()
+                .collect(Collectors.toMap(Person::getPersonId, Function.identity()));
+        Map<UUID, PaymentAllocation> allocations = allocationIds.isEmpty()
+                ? new HashMap<>()
+                : paymentAllocationRepository.findAllById(allocationIds).stream()
+                        .collect(Collectors.toMap(PaymentAllocation::getAllocationId, Function.identity()));
+        
+        dashboardSummaryService.trackEntries(entries.keySet());
+        
+        List<BatchPaymentItemDTO> results = new ArrayList<>(requests.size());
+        List<Payment> payments = new ArrayList<>();
+        List<PaymentEntry> paymentEntries = new ArrayList<>();
+        List<PaymentAllocationPayment> allocationPayments = new ArrayList<>();
+        // Running balance per entry so change amounts match creating the payments one by one
+        Map<UUID, BigDecimal> remainingByEntry = new HashMap<>();
+        Map<UUID, BigDecimal> paidByEntry = new LinkedHashMap<>();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            CreatePaymentRequest request = requests.get(i);
+            String error = validateBatchItem(request, entries, payees, allocations);
+            if (error != null) {
+                results.add(new BatchPaymentItemDTO(i, "FAILED", null, error));
+                continue;
+            }
+            
+            Entry entry = entries.get(request.getEntryId());
+            BigDecimal remaining = remainingByEntry.getOrDefault(entry.getEntryId(), entry.getAmountRemaining());
+            BigDecimal changeAmount = BigDecimal.ZERO;
+            if (request.getPaymentAmount().compareTo(remaining) > 0) {
+                changeAmount = request.getPaymentAmount().subtract(remaining);
+            }
+            remainingByEntry.put(entry.getEntryId(), remaining.subtract(request.getPaymentAmount()).max(BigDecimal.ZERO));
+            paidByEntry.merge(entry.getEntryId(), request.getPaymentAmount(), BigDecimal::add);
+            
+            Payment payment = new Payment();
+            payment.setPaymentDate(request.getPaymentDate());
+            payment.setPaymentAmount(request.getPaymentAmount());
+            payment.setChangeAmount(changeAmount);
+            payment.setPayeePerson(payees.get(request.getPayeePersonId()));
+            payment.setNotes(request.getNotes());
+            payments.add(payment);
+            
+            PaymentEntry paymentEntry = new PaymentEntry();
+            paymentEntry.setPayment(payment);
+            paymentEntry.setEntry(entry);
+            paymentEntries.add(paymentEntry);
+            
+            if (request.getAllocationId() != null) {
+                PaymentAllocationPayment allocationPayment = new PaymentAllocationPayment();
+                allocationPayment.setPayment(payment);
+                allocationPayment.setAllocation(allocations.get(request.getAllocationId()));
+                allocationPayment.setAmount(request.getPaymentAmount());
+                allocationPayments.add(allocationPayment);
+            }
+            
+            results.add(new BatchPaymentItemDTO(i, "CREATED", null, null));
+        }
+        
+        // Inserts are ordered by table and sent in JDBC batches (hibernate.jdbc.batch_size)
+        paymentRepository.saveAll(payments);
+        paymentEntryRepository.saveAll(paymentEntries);
+        paymentAllocationPaymentRepository.saveAll(allocationPayments);
         
-        // Update status
-        if (newRemaining.compareTo(BigDecimal.ZERO) == 0) {
-            entry.setStatus(PaymentStatus.PAID);
-            entry.setDateFullyPaid(java.time.LocalDate.now());
-        } else if (entry.getAmountRemaining().compareTo(entry.getAmountBorrowed()) < 0) {
-            entry.setStatus(PaymentStatus.PARTIALLY_PAID);
+        // One balance update per entry, then one delinquency refresh per installment entry
+        for (Map.Entry<UUID, BigDecimal> paid : paidByEntry.entrySet()) {
+            updateEntryAfterPayment(entries.get(paid.getKey()), paid.getValue());
+        }
+        ledgerService.recordPayments(paymentEntries);
+        for (UUID entryId : paidByEntry.keySet()) {
+            if (entries.get(entryId).getTransactionType() == TransactionType.INSTALLMENT_EXPENSE) {
+                installmentService.updateDelinquentTermsForEntry(entryId);
+            }
         }
         
-        entryRepository.save(entry);
+        int created = 0;
+        for (BatchPaymentItemDTO result : results) {
+            if ("CREATED".equals(result.getStatus())) {
+                PaymentEntry paymentEntry = paymentEntries.get(created++);
+                // A just-created payment has no proof and exactly one entry, so no lookups are needed
+                result.setPayment(toDTO(paymentEntry.getPayment(), paymentEntry.getEntry(), false));
+            }
+        }
+        return new BatchPaymentResultDTO(created, results.size() - created, results);
+    }
+    
+    // Same checks as createPayment, reported per item instead of thrown
+    private String validateBatchItem(CreatePaymentRequest request, Map<UUID, Entry> entries,
+                                     Map<UUID, Person> payees, Map<UUID, PaymentAllocation> allocations) {
+        if (request == null) {
+            return "Payment is required";
+        }
+        if (request.getEntryId() == null || !entries.containsKey(request.getEntryId())) {
+            return "Entry not found";
+        }
+        if (request.getPayeePersonId() == null || !payees.containsKey(request.getPayeePersonId())) {
+            return "Payee not found";
+        }
+        if (request.getPaymentAmount() == null || request.getPaymentAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Payment amount must be greater than zero";
+        }
+        if (request.getAllocationId() != null) {
+            PaymentAllocation allocation = allocations.get(request.getAllocationId());
+            if (allocation == null) {
+                return "Payment allocation not found";
+            }
+            if (!allocation.getEntry().getEntryId().equals(request.getEntryId())) {
+                return "Payment allocation does not belong to this entry";
+            }
+            if (!allocation.getPerson().getPersonId().equals(request.getPayeePersonId())) {
+                return "Payee must match the person in the payment allocation";
+            }
+        }
+        return null;
+    }
+    
+    // Balance and status are updated in the database in one statement (entry must be locked)
+    private BigDecimal updateEntryAfterPayment(Entry entry, BigDecimal paymentAmount) {
+        return entryBalanceService.applyPayment(entry, paymentAmount);
     }
     
     public PaymentDTO updatePayment(UUID id, CreatePaymentRequest request) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + id));
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isPaymentRelatedToParentUser(payment, currentUser.getPersonId())) {
+        if (!isPaymentRelatedToCurrentUser(payment, accessContextService.current())) {
             throw new IllegalArgumentException("Payment not found with id: " + id);
         }
         
@@ -253,10 +451,12 @@ public class PaymentService {
         
         // Update entry if payment amount changed
         if (oldAmount.compareTo(request.getPaymentAmount()) != 0) {
-            Entry entry = entryRepository.findById(request.getEntryId())
+            Entry entry = entryBalanceService.lock(request.getEntryId())
                     .orElseThrow(() -> new IllegalArgumentException("Entry not found"));
+            dashboardSummaryService.trackEntry(request.getEntryId());
             BigDecimal difference = request.getPaymentAmount().subtract(oldAmount);
-            updateEntryAfterPayment(entry, difference);
+            BigDecimal change = updateEntryAfterPayment(entry, difference);
+            ledgerService.recordPaymentChange(entry, saved, change);
         }
         
         return convertToDTO(saved);
@@ -266,8 +466,7 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + id));
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isPaymentRelatedToParentUser(payment, currentUser.getPersonId())) {
+        if (!isPaymentRelatedToCurrentUser(payment, accessContextService.current())) {
             throw new IllegalArgumentException("Payment not found with id: " + id);
         }
         
@@ -285,12 +484,40 @@ public class PaymentService {
         // is not involved in the entry. This matches the behavior of getEntryById and
         // getPaymentAllocationsByEntry.
         
-        return paymentEntryRepository.findByEntry_EntryId(entryId).stream()
-                .map(pe -> convertToDTO(pe.getPayment()))
-                .collect(Collectors.toList());
+        return toDTOs(paymentEntryRepository.findWithPaymentByEntryIds(List.of(entryId)));
+    }
+    
+    // Converts payment-entry links (payment and payee already fetched) with one query for proof flags
+    private List<PaymentDTO> toDTOs(List<PaymentEntry> links) {
+        if (links.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<UUID> paymentIds = new HashSet<>();
+        for (PaymentEntry link : links) {
+            paymentIds.add(link.getPayment().getPaymentId());
+        }
+        Set<UUID> paymentsWithProof = new HashSet<>(attachmentRepository.findPaymentIdsWithAttachments(paymentIds));
+        
+        List<PaymentDTO> dtos = new ArrayList<>(links.size());
+        for (PaymentEntry link : links) {
+            Payment payment = link.getPayment();
+            dtos.add(toDTO(payment, link.getEntry(), paymentsWithProof.contains(payment.getPaymentId())));
+        }
+        return dtos;
     }
     
     private PaymentDTO convertToDTO(Payment payment) {
+        // Existence check only - the proof bytes are loaded by the proof endpoint
+        boolean hasProof = attachmentRepository.existsByPayment_PaymentId(payment.getPaymentId());
+        
+        // Get related entry information
+        List<PaymentEntry> paymentEntries = paymentEntryRepository.findByPayment_PaymentId(payment.getPaymentId());
+        Entry entry = paymentEntries.isEmpty() ? null : paymentEntries.get(0).getEntry();
+        
+        return toDTO(payment, entry, hasProof);
+    }
+    
+    private PaymentDTO toDTO(Payment payment, Entry entry, boolean hasProof) {
         PaymentDTO dto = new PaymentDTO();
         dto.setPaymentId(payment.getPaymentId());
         dto.setPaymentDate(payment.getPaymentDate());
@@ -301,90 +528,37 @@ public class PaymentService {
             dto.setPayeePersonName(payment.getPayeePerson().getFullName());
         }
         dto.setNotes(payment.getNotes());
-        
-        // Check if payment has proof
-        boolean hasProof = payment.getProof() != null && payment.getProof().length > 0;
-        if (!hasProof) {
-            // Also check attachments table
-            List<Attachment> attachments = attachmentRepository.findByPayment_PaymentId(payment.getPaymentId());
-            hasProof = !attachments.isEmpty();
-        }
         dto.setHasProof(hasProof);
         
-        // Get related entry information
-        List<PaymentEntry> paymentEntries = paymentEntryRepository.findByPayment_PaymentId(payment.getPaymentId());
-        if (!paymentEntries.isEmpty()) {
-            Entry entry = paymentEntries.get(0).getEntry();
+        if (entry != null) {
             dto.setEntryId(entry.getEntryId());
             dto.setEntryName(entry.getEntryName());
             dto.setEntryReferenceId(entry.getReferenceId());
-        }
-        
-        return dto;
-    }
-    
-    /**
-     * Gets payment proof image as byte array for viewing/downloading.
-     * Returns proof from payment.proof field or from attachments table.
-     */
-    public byte[] getPaymentProof(UUID paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + paymentId));
-        
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isPaymentRelatedToParentUser(payment, currentUser.getPersonId())) {
-            throw new IllegalArgumentException("Payment not found with id: " + paymentId);
-        }
-        
-        // First try to get from payment.proof field
-        if (payment.getProof() != null && payment.getProof().length > 0) {
-            return payment.getProof();
-        }
-        
-        // Fallback to attachments table
-        List<Attachment> attachments = attachmentRepository.findByPayment_PaymentId(paymentId);
-        if (!attachments.isEmpty()) {
-            Attachment attachment = attachments.get(0);
-            if (attachment.getFileData() != null && attachment.getFileData().length > 0) {
-                return attachment.getFileData();
+            dto.setEntryStatus(entry.getStatus());
+            dto.setEntryAmountBorrowed(entry.getAmountBorrowed());
+            dto.setEntryAmountRemaining(entry.getAmountRemaining());
+            if (entry.getLenderPerson() != null) {
+                dto.setLenderPersonName(entry.getLenderPerson().getFullName());
             }
         }
         
-        throw new IllegalArgumentException("Payment proof not found");
+        return dto;
     }
     
     /**
      * Gets payment proof with content type information.
-     * Returns proof from payment.proof field or from attachments table.
+     * Only metadata is read here; the bytes are streamed when the response is written.
      */
-    public PaymentProofInfo getPaymentProofWithInfo(UUID paymentId) {
+    public ProofFileDTO getPaymentProofWithInfo(UUID paymentId, ProofSize size) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found with id: " + paymentId));
         
-        Person currentUser = getOrCreateCurrentUser();
-        if (!isPaymentRelatedToParentUser(payment, currentUser.getPersonId())) {
+        if (!isPaymentRelatedToCurrentUser(payment, accessContextService.current())) {
             throw new IllegalArgumentException("Payment not found with id: " + paymentId);
         }
         
-        // First try to get from payment.proof field
-        if (payment.getProof() != null && payment.getProof().length > 0) {
-            return new PaymentProofInfo(payment.getProof(), "image/jpeg"); // Default for proof field
-        }
-        
-        // Fallback to attachments table
-        List<Attachment> attachments = attachmentRepository.findByPayment_PaymentId(paymentId);
-        if (!attachments.isEmpty()) {
-            Attachment attachment = attachments.get(0);
-            if (attachment.getFileData() != null && attachment.getFileData().length > 0) {
-                String contentType = attachment.getContentType();
-                if (contentType == null || contentType.trim().isEmpty()) {
-                    contentType = "image/jpeg"; // Default
-                }
-                return new PaymentProofInfo(attachment.getFileData(), contentType);
-            }
-        }
-        
-        throw new IllegalArgumentException("Payment proof not found");
+        return proofFileService.findPaymentProof(paymentId, size)
+                .orElseThrow(() -> new IllegalArgumentException("Payment proof not found"));
     }
     
     /**
@@ -397,78 +571,9 @@ public class PaymentService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalPaidPenalties() {
-        Person currentUser = getOrCreateCurrentUser();
-        UUID currentUserId = currentUser.getPersonId();
-        
-        // Get all entries related to the user
-        List<Entry> userEntries = entryRepository.findEntriesForUser(currentUserId);
+        UUID currentUserId = accessContextService.current().getPersonId();
         
-        AtomicReference<BigDecimal> totalPaidPenalties = new AtomicReference<>(BigDecimal.ZERO);
-        
-        for (Entry entry : userEntries) {
-            // Only process installment entries
-            if (entry.getTransactionType() != TransactionType.INSTALLMENT_EXPENSE) {
-                continue;
-            }
-            
-            // If entry is fully paid, all penalties are considered paid
-            if (entry.getStatus() == PaymentStatus.PAID) {
-                installmentPlanRepository.findByEntry_EntryId(entry.getEntryId())
-                    .ifPresent(plan -> {
-                        List<InstallmentTerm> terms = installmentTermRepository
-                            .findByInstallmentPlan_InstallmentId(plan.getInstallmentId());
-                        for (InstallmentTerm term : terms) {
-                            if (term.getPenaltyApplied() != null && 
-                                term.getPenaltyApplied().compareTo(BigDecimal.ZERO) > 0) {
-                                totalPaidPenalties.updateAndGet(
-                                    current -> current.add(term.getPenaltyApplied())
-                                );
-                            }
-                        }
-                    });
-            } else {
-                // Entry is not fully paid, only count penalties from terms that are PAID
-                installmentPlanRepository.findByEntry_EntryId(entry.getEntryId())
-                    .ifPresent(plan -> {
-                        List<InstallmentTerm> paidTerms = installmentTermRepository
-                            .findByInstallmentPlan_InstallmentIdAndTermStatus(
-                                plan.getInstallmentId(), 
-                                InstallmentStatus.PAID
-                            );
-                        for (InstallmentTerm term : paidTerms) {
-                            if (term.getPenaltyApplied() != null && 
-                                term.getPenaltyApplied().compareTo(BigDecimal.ZERO) > 0) {
-                                totalPaidPenalties.updateAndGet(
-                                    current -> current.add(term.getPenaltyApplied())
-                                );
-                            }
-                        }
-                    });
-            }
-        }
-        
-        return totalPaidPenalties.get();
-    }
-    
-    /**
-     * Inner class to hold payment proof data and content type.
-     */
-    public static class PaymentProofInfo {
-        private final byte[] proof;
-        private final String contentType;
-        
-        public PaymentProofInfo(byte[] proof, String contentType) {
-            this.proof = proof;
-            this.contentType = contentType;
-        }
-        
-        public byte[] getProof() {
-            return proof;
-        }
-        
-        public String getContentType() {
-            return contentType;
-        }
+        // One aggregate over entry -> installment_plan -> installment_term
+        return installmentTermRepository.sumPaidPenaltiesForUser(currentUserId);
     }
 }
-
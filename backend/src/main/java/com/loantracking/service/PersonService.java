@@ -18,6 +18,9 @@ public class PersonService {
     @Autowired
     private PersonRepository personRepository;
     
+    @Autowired
+    private CurrentUserResolver currentUserResolver;
+    
     public List<PersonDTO> getAllPersons() {
         return personRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -42,6 +45,8 @@ public class PersonService {
                 .orElseThrow(() -> new IllegalArgumentException("Person not found with id: " + id));
         person.setFullName(personDTO.getFullName());
         Person updated = personRepository.save(person);
+        // The old name must no longer resolve to this person
+        currentUserResolver.evict(id);
         return convertToDTO(updated);
     }
     
@@ -50,6 +55,7 @@ public class PersonService {
             throw new IllegalArgumentException("Person not found with id: " + id);
         }
         personRepository.deleteById(id);
+        currentUserResolver.evict(id);
     }
     
     public List<PersonDTO> searchPersons(String name) {
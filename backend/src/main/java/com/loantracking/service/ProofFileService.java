@@ -0,0 +1,104 @@
+package com.loantracking.service;
+
+import com.loantracking.dto.ProofFileDTO;
+import com.loantracking.storage.AttachmentStorage;
+import com.loantracking.storage.ProofSize;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Looks up proof attachments for streaming. Only the attachment's metadata is read here;
+ * the bytes are read from AttachmentStorage (or, for attachments not yet migrated, the
+ * large object) while the response is written. Smaller sizes of image proofs are served from
+ * their derivatives once ProofThumbnailService has generated them. Callers are responsible for access checks.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProofFileService {
+
+    // The proof is the first attachment uploaded for the entry or payment.
+    // file_size is set on upload; the lo_get fallback only runs for legacy rows without it.
+    private static final String PROOF_SQL =
+            "SELECT a.attachment_id, a.content_hash, a.file_data AS oid, a.content_type, a.original_filename, " +
+            "coalesce(a.file_size, length(lo_get(a.file_data))) AS content_length " +
+            "FROM attachment a WHERE a.%s = :ownerId " +
+            "AND (a.content_hash IS NOT NULL OR a.file_data IS NOT NULL) " +
+            "ORDER BY a.created_at ASC LIMIT 1";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AttachmentStorage attachmentStorage;
+
+    @Autowired
+    private ProofThumbnailService proofThumbnailService;
+
+    public Optional<ProofFileDTO> findEntryProof(UUID entryId, ProofSize size) {
+        return findProof("entry_id", entryId, size);
+    }
+
+    public Optional<ProofFileDTO> findPaymentProof(UUID paymentId, ProofSize size) {
+        return findProof("payment_id", paymentId, size);
+    }
+
+    private Optional<ProofFileDTO> findProof(String ownerColumn, UUID ownerId, ProofSize size) {
+        List<ProofFileDTO> proofs = jdbcTemplate.query(String.format(PROOF_SQL, ownerColumn),
+                new MapSqlParameterSource("ownerId", ownerId),
+                (rs, rowNum) -> {
+                    long contentLength = rs.getLong("content_length");
+                    String contentType = rs.getString("content_type");
+                    if (contentType == null || contentType.trim().isEmpty()) {
+                        contentType = "image/jpeg"; // Default
+                    }
+                    String filename = rs.getString("original_filename");
+                    String attachmentId = rs.getString("attachment_id");
+                    String contentHash = rs.getString("content_hash");
+                    if (contentHash == null) {
+                        // Not yet moved to attachment storage; no derivatives either
+                        return new ProofFileDTO(
+                                new LargeObjectResource(jdbcTemplate, rs.getLong("oid"), contentLength, filename),
+                                contentLength, contentType, filename, "\"" + attachmentId + "\"", size == ProofSize.ORIGINAL);
+                    }
+                    if (size != ProofSize.ORIGINAL && ProofThumbnailService.isImage(contentType)) {
+                        Optional<Resource> derivative = attachmentStorage.openDerivative(contentHash, size.getKey());
+                        if (derivative.isPresent()) {
+                            return new ProofFileDTO(derivative.get(), contentLengthOf(derivative.get()), "image/jpeg",
+                                    filename, "\"" + attachmentId + "-" + size.getKey() + "\"", true);
+                        }
+                        // Serve the original this time and make sure the derivative is on its way
+                        proofThumbnailService.generate(contentHash, contentType);
+                    }
+                    return new ProofFileDTO(openStored(contentHash), contentLength, contentType, filename,
+                            "\"" + attachmentId + "\"", size == ProofSize.ORIGINAL || !ProofThumbnailService.isImage(contentType));
+                });
+        return proofs.stream()
+                .filter(proof -> proof.getContentLength() > 0)
+                .findFirst();
+    }
+
+    private long contentLengthOf(Resource resource) {
+        try {
+            return resource.contentLength();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read attachment derivative " + resource, e);
+        }
+    }
+
+    private Resource openStored(String contentHash) {
+        try {
+            return attachmentStorage.open(contentHash);
+        } catch (IOException e) {
+            throw new IllegalStateException("Attachment content is missing from storage: " + contentHash, e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.loantracking.service;
+
+import com.loantracking.storage.AttachmentStorage;
+import com.loantracking.storage.ProofSize;
+import com.loantracking.util.ImageScaler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates downscaled JPEG derivatives (see {@link ProofSize}) of image proofs in the background.
+ * Work runs on a small bounded pool so decoding large photos cannot starve request threads or
+ * exhaust memory; when the queue is full the request is dropped and retried the next time the
+ * derivative is asked for. Until a derivative exists, readers are served the original.
+ */
+@Service
+public class ProofThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProofThumbnailService.class);
+
+    private static final List<ProofSize> DERIVATIVE_SIZES = Arrays.stream(ProofSize.values())
+            .filter(size -> size != ProofSize.ORIGINAL)
+            .toList();
+
+    private static final int LARGEST_EDGE = DERIVATIVE_SIZES.stream().mapToInt(ProofSize::getMaxEdge).max().orElse(0);
+
+    @Autowired
+    private AttachmentStorage attachmentStorage;
+
+    private final ThreadPoolExecutor executor;
+
+    // Hashes queued or being processed, so repeated requests do not queue duplicate work
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // Hashes ImageIO cannot decode (e.g. HEIC, PDF renamed .jpg); their originals are always served
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    public ProofThumbnailService(MeterRegistry meterRegistry,
+                                 @Value("${app.attachments.thumbnail-threads:2}") int threads,
+                                 @Value("${app.attachments.thumbnail-queue-capacity:100}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "proof-thumbnail-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "proof.thumbnails");
+    }
+
+    /**
+     * Queues derivative generation once the current transaction commits (the blob is only
+     * guaranteed to be referenced then), or immediately outside a transaction.
+     */
+    public void generateAfterCommit(String contentHash, String contentType) {
+        if (!isImage(contentType)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generate(contentHash, contentType);
+                }
+            });
+        } else {
+            generate(contentHash, contentType);
+        }
+    }
+
+    /**
+     * Queues generation of any missing derivatives of a stored image. Returns immediately.
+     */
+    public void generate(String contentHash, String contentType) {
+        if (!isImage(contentType) || unsupported.contains(contentHash) || !pending.add(contentHash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    writeDerivatives(contentHash);
+                } catch (Exception e) {
+                    log.warn("Thumbnail generation failed for attachment blob {}", contentHash, e);
+                } finally {
+                    pending.remove(contentHash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(contentHash);
+            log.debug("Thumbnail queue full; skipped attachment blob {}", contentHash);
+        }
+    }
+
+    static boolean isImage(String contentType) {
+        return contentType != null && contentType.toLowerCase().startsWith("image/");
+    }
+
+    private void writeDerivatives(String contentHash) throws IOException {
+        List<ProofSize> missing = DERIVATIVE_SIZES.stream()
+                .filter(size -> attachmentStorage.openDerivative(contentHash, size.getKey()).isEmpty())
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        Resource original = attachmentStorage.open(contentHash);
+        BufferedImage image;
+        try (InputStream in = original.getInputStream()) {
+            // Decoded once at a resolution that suits the largest derivative
+            image = ImageScaler.read(in, LARGEST_EDGE);
+        }
+        if (image == null) {
+            unsupported.add(contentHash);
+            return;
+        }
+        // Largest first, each scaled from the previous one
+        BufferedImage source = image;
+        for (ProofSize size : missing.stream().sorted((a, b) -> b.getMaxEdge() - a.getMaxEdge()).toList()) {
+            source = ImageScaler.fit(source, size.getMaxEdge());
+            attachmentStorage.storeDerivative(contentHash, size.getKey(), ImageScaler.toJpeg(source));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,125 @@
+package com.loantracking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Computes strong ETags for read endpoints from cheap version queries
+ * (row count plus max updated_at/created_at of every table that feeds the response).
+ * Any insert, update or delete in scope changes the ETag, so a matching
+ * If-None-Match lets the controller answer 304 without building DTOs.
+ * Transactional so the version query reuses the request's connection; not read-only
+ * because resolving the current user may create them.
+ */
+@Service
+@Transactional
+public class ResourceVersionService {
+
+    // Version of a set of entries and everything shown with them.
+    // The caller supplies the "scoped" CTE that selects entry_id, updated_at.
+    private static final String ENTRY_SCOPE_VERSION_SQL =
+            "WITH scoped AS (%s) " +
+            "SELECT concat_ws('|', " +
+            "(SELECT count(*) || ':' || coalesce(max(updated_at)::text, '') FROM scoped), " +
+            "(SELECT count(*) || ':' || coalesce(max(p.updated_at)::text, '') " +
+            "   FROM installment_plan p JOIN scoped s ON s.entry_id = p.entry_id), " +
+            "(SELECT count(*) || ':' || coalesce(max(t.updated_at)::text, '') " +
+            "   FROM installment_term t JOIN installment_plan p ON p.installment_id = t.installment_id " +
+            "   JOIN scoped s ON s.entry_id = p.entry_id), " +
+            "(SELECT count(*) || ':' || coalesce(max(pay.updated_at)::text, '') " +
+            "   FROM payment_entry pe JOIN payment pay ON pay.payment_id = pe.payment_id " +
+            "   JOIN scoped s ON s.entry_id = pe.entry_id), " +
+            "(SELECT count(*) || ':' || coalesce(max(a.updated_at)::text, '') " +
+            "   FROM payment_allocation a JOIN scoped s ON s.entry_id = a.entry_id), " +
+            "(SELECT count(*) || ':' || coalesce(sum(pap.amount)::text, '') || ':' || coalesce(max(pap.created_at)::text, '') " +
+            "   FROM payment_allocation_payment pap JOIN payment_allocation a ON a.allocation_id = pap.allocation_id " +
+            "   JOIN scoped s ON s.entry_id = a.entry_id), " +
+            "(SELECT count(*) || ':' || coalesce(max(att.created_at)::text, '') FROM attachment att " +
+            "   WHERE att.entry_id IN (SELECT entry_id FROM scoped) " +
+            "   OR att.payment_id IN (SELECT pe.payment_id FROM payment_entry pe JOIN scoped s ON s.entry_id = pe.entry_id)), " +
+            // Names of lenders, borrowers, payees and groups are shown in the DTOs
+            "(SELECT count(*) || ':' || coalesce(max(updated_at)::text, '') FROM person), " +
+            "(SELECT count(*) || ':' || coalesce(max(updated_at)::text, '') FROM \"group\"))";
+
+    private static final String USER_ENTRIES_SCOPE =
+            "SELECT e.entry_id, e.updated_at FROM entry e " +
+            "WHERE e.lender_person_id = :personId OR e.borrower_person_id = :personId " +
+            "OR e.borrower_group_id IN (SELECT gm.group_id FROM group_member gm WHERE gm.person_id = :personId)";
+
+    private static final String SINGLE_ENTRY_SCOPE =
+            "SELECT e.entry_id, e.updated_at FROM entry e WHERE e.entry_id = :entryId";
+
+    private static final String GROUPS_VERSION_SQL =
+            "SELECT concat_ws('|', " +
+            "(SELECT count(*) || ':' || coalesce(max(updated_at)::text, '') FROM \"group\"), " +
+            "(SELECT count(*) || ':' || coalesce(max(created_at)::text, '') FROM group_member), " +
+            "(SELECT count(*) || ':' || coalesce(max(updated_at)::text, '') FROM person))";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccessContextService accessContextService;
+
+    /**
+     * ETag for GET /api/entries/{id}. Viewing an entry changes nothing; terms that lapse
+     * are marked by the delinquency sweep, which bumps the term and entry updated_at.
+     */
+    public String entryETag(UUID entryId) {
+        String version = queryVersion(String.format(ENTRY_SCOPE_VERSION_SQL, SINGLE_ENTRY_SCOPE),
+                new MapSqlParameterSource("entryId", entryId));
+        return toETag("entry", version, userPart());
+    }
+
+    /**
+     * ETag for GET /api/entries.
+     */
+    public String entriesETag() {
+        return toETag("entries", userEntriesVersion(), userPart());
+    }
+
+    /**
+     * ETag for GET /api/dashboard/summary (counts, totals, penalties and recent entries
+     * all come from the user's entries and their terms; overdue figures depend on the date).
+     */
+    public String dashboardETag() {
+        return toETag("dashboard", userEntriesVersion(), userPart(), LocalDate.now().toString());
+    }
+
+    /**
+     * ETag for GET /api/groups.
+     */
+    public String groupsETag() {
+        return toETag("groups", queryVersion(GROUPS_VERSION_SQL, new MapSqlParameterSource()));
+    }
+
+    private String userEntriesVersion() {
+        UUID personId = accessContextService.current().getPersonId();
+        return queryVersion(String.format(ENTRY_SCOPE_VERSION_SQL, USER_ENTRIES_SCOPE),
+                new MapSqlParameterSource("personId", personId));
+    }
+
+    // The user's id and group ids decide visibility and userRole, so they are part of the version
+    private String userPart() {
+        AccessContext access = accessContextService.current();
+        return access.getPersonId() + ":" + new TreeSet<>(access.getGroupIds());
+    }
+
+    private String queryVersion(String sql, MapSqlParameterSource params) {
+        return jdbcTemplate.queryForObject(sql, params, String.class);
+    }
+
+    private String toETag(String... parts) {
+        String version = String.join("/", parts);
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
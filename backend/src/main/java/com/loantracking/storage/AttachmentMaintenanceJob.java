@@ -0,0 +1,50 @@
+package com.loantracking.storage;
+
+import com.loantracking.service.AttachmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background upkeep of the attachment store: moves legacy in-database attachments into
+ * {@link AttachmentStorage}, deletes blobs no attachment references any more and files
+ * no blob row accounts for.
+ * Each batch runs in its own transaction.
+ */
+@Component
+public class AttachmentMaintenanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentMaintenanceJob.class);
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Value("${app.attachments.batch-size:50}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${app.attachments.migration-initial-delay:PT30S}",
+               fixedDelayString = "${app.attachments.migration-interval:PT15M}")
+    public void migrateLegacyAttachments() {
+        int total = 0;
+        int migrated;
+        do {
+            migrated = attachmentService.migrateLegacyAttachments(batchSize);
+            total += migrated;
+        } while (migrated == batchSize);
+        if (total > 0) {
+            log.info("Moved {} legacy attachments to attachment storage", total);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.attachments.gc-initial-delay:PT5M}",
+               fixedDelayString = "${app.attachments.gc-interval:PT1H}")
+    public void collectGarbage() {
+        while (attachmentService.collectGarbage(batchSize) == batchSize) {
+            // Keep going until a short batch shows nothing is left
+        }
+        attachmentService.sweepOrphanFiles(batchSize);
+    }
+}
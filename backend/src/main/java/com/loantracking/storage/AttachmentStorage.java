@@ -0,0 +1,62 @@
+package com.loantracking.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressed blob store for attachment bytes. Blobs are keyed by the
+ * lowercase hex SHA-256 of their content, so identical uploads share one blob.
+ * <p>
+ * Writing is two-step so the caller can register the blob in the database in between:
+ * {@link #stage} copies the content to a temporary location and hashes it,
+ * {@link #commit} moves it into place atomically and durably (or drops it when the blob already exists).
+ */
+public interface AttachmentStorage {
+
+    StagedBlob stage(InputStream content) throws IOException;
+
+    /**
+     * Publishes a staged blob under its hash. A no-op apart from cleanup when the blob is already stored.
+     */
+    void commit(StagedBlob staged) throws IOException;
+
+    /**
+     * Removes a staged blob that will not be committed.
+     */
+    void discard(StagedBlob staged);
+
+    Resource open(String contentHash) throws IOException;
+
+    /**
+     * Stores a derivative of a blob (e.g. a thumbnail) under the blob's hash and a variant name.
+     * Replaces any existing derivative of the same variant atomically.
+     */
+    void storeDerivative(String contentHash, String variant, byte[] content) throws IOException;
+
+    /**
+     * @return the derivative, or empty if it has not been generated
+     */
+    Optional<Resource> openDerivative(String contentHash, String variant);
+
+    /**
+     * Removes a blob together with its derivatives.
+     * @return true if the blob existed and was removed
+     */
+    boolean delete(String contentHash) throws IOException;
+
+    /**
+     * @return the hashes of stored blobs last modified before the cutoff
+     */
+    List<String> listStoredBefore(Instant cutoff) throws IOException;
+
+    /**
+     * Removes staged content older than the cutoff (uploads that never committed or discarded it).
+     * @return the number of staged files removed
+     */
+    int deleteStagedBefore(Instant cutoff) throws IOException;
+}
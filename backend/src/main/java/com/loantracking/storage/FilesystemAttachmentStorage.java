@@ -0,0 +1,214 @@
+package com.loantracking.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores blobs on the local filesystem under {@code <root>/ab/cd/abcd...}, sharded by the
+ * first two bytes of the hash so no directory grows past a few thousand files.
+ * Uploads are written to {@code <root>/tmp}, fsynced, then renamed into place, so a blob
+ * path either does not exist or holds the complete content. Derivatives such as thumbnails
+ * are stored beside their blob as {@code <hash>.<variant>.jpg}.
+ */
+@Component
+public class FilesystemAttachmentStorage implements AttachmentStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(FilesystemAttachmentStorage.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Pattern VARIANT = Pattern.compile("[a-z0-9]+");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tempDir;
+
+    public FilesystemAttachmentStorage(@Value("${app.attachments.storage-dir:./data/attachments}") String storageDir)
+            throws IOException {
+        this.root = Path.of(storageDir).toAbsolutePath().normalize();
+        this.tempDir = root.resolve("tmp");
+        Files.createDirectories(tempDir);
+        log.info("Attachment storage at {}", root);
+    }
+
+    @Override
+    public StagedBlob stage(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path tempFile = tempDir.resolve(UUID.randomUUID() + ".part");
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedBlob(HexFormat.of().formatHex(digest.digest()), size, tempFile);
+    }
+
+    @Override
+    public void commit(StagedBlob staged) throws IOException {
+        Path target = blobPath(staged.getContentHash());
+        if (Files.exists(target)) {
+            // Same content is already stored
+            Files.deleteIfExists(staged.getTempFile());
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(staged.getTempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IOException("Attachment temp directory must be on the same filesystem as " + root, e);
+        }
+        // The content was synced when staged; sync the rename too, so the blob survives a crash
+        syncDirectory(target.getParent());
+    }
+
+    @Override
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists(staged.getTempFile());
+        } catch (IOException e) {
+            log.warn("Could not remove staged attachment {}", staged.getTempFile(), e);
+        }
+    }
+
+    @Override
+    public Resource open(String contentHash) throws IOException {
+        Path path = blobPath(contentHash);
+        if (!Files.isReadable(path)) {
+            throw new FileNotFoundException("Attachment blob not found: " + contentHash);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public void storeDerivative(String contentHash, String variant, byte[] content) throws IOException {
+        Path target = derivativePath(contentHash, variant);
+        Path tempFile = tempDir.resolve(UUID.randomUUID() + ".part");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(content));
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public Optional<Resource> openDerivative(String contentHash, String variant) {
+        Path path = derivativePath(contentHash, variant);
+        return Files.isReadable(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(String contentHash) throws IOException {
+        Path blob = blobPath(contentHash);
+        if (Files.isDirectory(blob.getParent())) {
+            try (DirectoryStream<Path> derivatives = Files.newDirectoryStream(blob.getParent(), contentHash + ".*")) {
+                for (Path derivative : derivatives) {
+                    Files.deleteIfExists(derivative);
+                }
+            }
+        }
+        return Files.deleteIfExists(blob);
+    }
+
+    @Override
+    public List<String> listStoredBefore(Instant cutoff) throws IOException {
+        List<String> hashes = new ArrayList<>();
+        // <root>/ab/cd/<hash>; derivatives and the tmp directory don't match the hash pattern
+        try (Stream<Path> files = Files.find(root, 3, (path, attributes) -> attributes.isRegularFile()
+                && SHA256_HEX.matcher(path.getFileName().toString()).matches()
+                && attributes.lastModifiedTime().toInstant().isBefore(cutoff))) {
+            files.forEach(path -> hashes.add(path.getFileName().toString()));
+        }
+        return hashes;
+    }
+
+    @Override
+    public int deleteStagedBefore(Instant cutoff) throws IOException {
+        int deleted = 0;
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(tempDir, "*.part")) {
+            for (Path file : staged) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (Windows) cannot open a directory; the rename is as durable as they allow
+            log.debug("Could not sync directory {}", directory, e);
+        }
+    }
+
+    private Path blobPath(String contentHash) {
+        // Hashes come from the database; never let one escape the storage root
+        if (contentHash == null || !SHA256_HEX.matcher(contentHash).matches()) {
+            throw new IllegalArgumentException("Invalid attachment hash: " + contentHash);
+        }
+        return root.resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    // <hash>.<variant>.jpg in the blob's shard directory
+    private Path derivativePath(String contentHash, String variant) {
+        if (variant == null || !VARIANT.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Invalid derivative variant: " + variant);
+        }
+        return blobPath(contentHash).resolveSibling(contentHash + "." + variant + ".jpg");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
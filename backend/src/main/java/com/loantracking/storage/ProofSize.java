@@ -0,0 +1,36 @@
+package com.loantracking.storage;
+
+/**
+ * Sizes a proof can be requested in. Derivatives are JPEGs that fit in a square of
+ * {@code maxEdge} pixels and are stored next to the original blob.
+ */
+public enum ProofSize {
+    ORIGINAL("original", 0),
+    THUMB("thumb", 256),
+    PREVIEW("preview", 1024);
+
+    private final String key;
+    private final int maxEdge;
+
+    ProofSize(String key, int maxEdge) {
+        this.key = key;
+        this.maxEdge = maxEdge;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+
+    public static ProofSize parse(String value) {
+        for (ProofSize size : values()) {
+            if (size.key.equalsIgnoreCase(value == null ? "" : value.trim())) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported proof size: " + value + " (use original, preview or thumb)");
+    }
+}
@@ -0,0 +1,17 @@
+package com.loantracking.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * Content written by {@link AttachmentStorage#stage} but not yet published under its hash.
+ */
+@Data
+@AllArgsConstructor
+public class StagedBlob {
+    private String contentHash;
+    private long size;
+    private Path tempFile;
+}
@@ -0,0 +1,72 @@
+package com.loantracking.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+
+/**
+ * Reads the values packed into an installment plan's notes column by older versions,
+ * before the day had its own payment_frequency_day column.
+ * Those plans store JSON ({"paymentFrequencyDay": ..., "userNotes": ...})
+ * or the even older "__PAYMENT_FREQUENCY_DAY__:value__ notes" format.
+ */
+public class InstallmentNotes {
+
+    private static final String LEGACY_MARKER = "__PAYMENT_FREQUENCY_DAY__:";
+
+    // ObjectMapper is thread-safe once configured, so one instance is shared
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Whether the notes look like one of the packed formats rather than plain user notes.
+     */
+    public static boolean isPacked(String notes) {
+        return notes != null && (notes.trim().startsWith("{") || notes.contains(LEGACY_MARKER));
+    }
+
+    public static String extractPaymentFrequencyDay(String notes) {
+        if (notes == null || notes.trim().isEmpty()) {
+            return null;
+        }
+
+        // Try to parse as JSON first
+        try {
+            Map<String, String> notesData = OBJECT_MAPPER.readValue(notes, new TypeReference<Map<String, String>>() {});
+            return notesData.get("paymentFrequencyDay");
+        } catch (Exception e) {
+            // Fallback: try simple format
+            if (notes.contains(LEGACY_MARKER)) {
+                int start = notes.indexOf(LEGACY_MARKER) + LEGACY_MARKER.length();
+                int end = notes.indexOf("__", start);
+                if (end > start) {
+                    return notes.substring(start, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    public static String extractUserNotes(String notes) {
+        if (notes == null || notes.trim().isEmpty()) {
+            return null;
+        }
+
+        // Try to parse as JSON first
+        try {
+            Map<String, String> notesData = OBJECT_MAPPER.readValue(notes, new TypeReference<Map<String, String>>() {});
+            return notesData.get("userNotes");
+        } catch (Exception e) {
+            // Fallback: try simple format
+            if (notes.contains(LEGACY_MARKER)) {
+                int end = notes.indexOf("__", notes.indexOf(LEGACY_MARKER) + LEGACY_MARKER.length());
+                if (end > 0 && end + 2 < notes.length()) {
+                    String remaining = notes.substring(end + 2).trim();
+                    return remaining.isEmpty() ? null : remaining;
+                }
+            }
+            // If no special format, return as-is (for backward compatibility)
+            return notes;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.loantracking.util;
+
+import com.loantracking.model.PaymentFrequency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Due date rules for installment terms.
+ * paymentFrequencyDay is a day of month ("1".."28") for MONTHLY plans or a day name ("MONDAY") for WEEKLY plans;
+ * when it is missing or invalid the schedule simply steps by one month or week.
+ */
+public class InstallmentSchedule {
+    
+    // Every valid rule is built once; looking one up is a map hit, not a parse
+    private static final Map<PaymentFrequency, Map<String, ScheduleRule>> RULES = new EnumMap<>(PaymentFrequency.class);
+    
+    static {
+        for (PaymentFrequency frequency : PaymentFrequency.values()) {
+            Map<String, ScheduleRule> rules = new HashMap<>();
+            rules.put("", new ScheduleRule(frequency, null, null));
+            if (frequency == PaymentFrequency.MONTHLY) {
+                for (int day = 1; day <= 28; day++) {
+                    rules.put(String.valueOf(day), new ScheduleRule(frequency, null, day));
+                }
+            } else if (frequency == PaymentFrequency.WEEKLY) {
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    rules.put(day.name(), new ScheduleRule(frequency, day, null));
+                }
+            }
+            RULES.put(frequency, Map.copyOf(rules));
+        }
+    }
+    
+    /**
+     * The shared, immutable rule for a plan's frequency and paymentFrequencyDay.
+     */
+    public static ScheduleRule rule(PaymentFrequency frequency, String paymentFrequencyDay) {
+        Map<String, ScheduleRule> rules = RULES.get(frequency);
+        String day = paymentFrequencyDay == null ? "" : paymentFrequencyDay.trim().toUpperCase();
+        ScheduleRule rule = rules.get(day);
+        if (rule != null) {
+            return rule;
+        }
+        
+        // Uncommon spellings such as "05" still count as a day of month
+        if (frequency == PaymentFrequency.MONTHLY) {
+            try {
+                rule = rules.get(String.valueOf(Integer.parseInt(day)));
+            } catch (NumberFormatException e) {
+                // Invalid day format, step by whole months
+            }
+        }
+        return rule != null ? rule : rules.get("");
+    }
+    
+    /**
+     * Amount borrowed / payment terms, rounded half up to cents.
+     */
+    public static BigDecimal amountPerTerm(BigDecimal amountBorrowed, int paymentTerms) {
+        return amountBorrowed.divide(BigDecimal.valueOf(paymentTerms), 2, RoundingMode.HALF_UP);
+    }
+    
+    public static LocalDate calculateFirstDueDate(LocalDate startDate, PaymentFrequency frequency, String paymentFrequencyDay) {
+        return rule(frequency, paymentFrequencyDay).firstDueDate(startDate);
+    }
+    
+    public static LocalDate calculateNextWeeklyDate(LocalDate currentDate, String paymentFrequencyDay) {
+        return rule(PaymentFrequency.WEEKLY, paymentFrequencyDay).nextDueDate(currentDate);
+    }
+    
+    public static LocalDate calculateNextMonthlyDate(LocalDate currentDate, String paymentFrequencyDay) {
+        return rule(PaymentFrequency.MONTHLY, paymentFrequencyDay).nextDueDate(currentDate);
+    }
+    
+    /**
+     * Due date of the term after the one due on currentDate.
+     */
+    public static LocalDate calculateNextDueDate(LocalDate currentDate, PaymentFrequency frequency, String paymentFrequencyDay) {
+        return rule(frequency, paymentFrequencyDay).nextDueDate(currentDate);
+    }
+    
+    /**
+     * A parsed schedule: the frequency plus either the weekday (WEEKLY) or the day of month (MONTHLY),
+     * both null when the plan has no preferred day.
+     */
+    public record ScheduleRule(PaymentFrequency frequency, DayOfWeek dayOfWeek, Integer dayOfMonth) {
+        
+        public LocalDate firstDueDate(LocalDate startDate) {
+            if (dayOfMonth != null) {
+                // Use the specified day of month, or the next month's if the start date is already past it
+                if (startDate.getDayOfMonth() > dayOfMonth) {
+                    LocalDate nextMonth = startDate.plusMonths(1);
+                    return nextMonth.withDayOfMonth(Math.min(dayOfMonth, nextMonth.lengthOfMonth()));
+                }
+                return startDate.withDayOfMonth(Math.min(dayOfMonth, startDate.lengthOfMonth()));
+            }
+            if (dayOfWeek != null) {
+                // Find the next occurrence of the target day of week
+                return startDate.with(TemporalAdjusters.nextOrSame(dayOfWeek));
+            }
+            return startDate;
+        }
+        
+        public LocalDate nextDueDate(LocalDate currentDate) {
+            if (frequency == PaymentFrequency.WEEKLY) {
+                LocalDate nextWeek = currentDate.plusWeeks(1);
+                return dayOfWeek != null ? nextWeek.with(TemporalAdjusters.nextOrSame(dayOfWeek)) : nextWeek;
+            }
+            if (frequency == PaymentFrequency.MONTHLY) {
+                LocalDate nextMonth = currentDate.plusMonths(1);
+                return dayOfMonth != null ? nextMonth.withDayOfMonth(Math.min(dayOfMonth, nextMonth.lengthOfMonth())) : nextMonth;
+            }
+            return currentDate;
+        }
+        
+        /**
+         * The day in the form stored on the plan ("15", "FRIDAY"), or null.
+         */
+        public String paymentFrequencyDay() {
+            if (dayOfMonth != null) {
+                return String.valueOf(dayOfMonth);
+            }
+            return dayOfWeek != null ? dayOfWeek.name() : null;
+        }
+    }
+}
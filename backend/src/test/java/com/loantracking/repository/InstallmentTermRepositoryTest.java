@@ -0,0 +1,268 @@
+package com.loantracking.repository;
+
+import com.loantracking.model.Entry;
+import com.loantracking.model.Group;
+import com.loantracking.model.GroupMember;
+import com.loantracking.model.InstallmentPlan;
+import com.loantracking.model.InstallmentStatus;
+import com.loantracking.model.InstallmentTerm;
+import com.loantracking.model.PaymentFrequency;
+import com.loantracking.model.PaymentStatus;
+import com.loantracking.model.Person;
+import com.loantracking.model.TransactionType;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the paid penalties aggregate against the per-entry loop it replaced in
+ * PaymentService.getTotalPaidPenalties, on a real PostgreSQL.
+ */
+@SpringBootTest
+@Transactional
+class InstallmentTermRepositoryTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("app.attachments.storage-dir", () -> "target/test-attachments");
+        registry.add("app.attachments.migration-initial-delay", () -> "PT1H");
+        registry.add("app.attachments.gc-initial-delay", () -> "PT1H");
+    }
+
+    @Autowired
+    private InstallmentTermRepository installmentTermRepository;
+
+    @Autowired
+    private InstallmentPlanRepository installmentPlanRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    private Person user;
+    private Person other;
+    private Person stranger;
+    private Group userGroup;
+    private Group otherGroup;
+
+    @BeforeEach
+    void setUp() {
+        user = person("user");
+        other = person("other");
+        stranger = person("stranger");
+        userGroup = group("user group", user, other);
+        otherGroup = group("other group", other, stranger);
+    }
+
+    @Test
+    void countsEveryPenaltyOfAPaidEntry() {
+        Entry entry = entry(user, other, null, PaymentStatus.PAID, TransactionType.INSTALLMENT_EXPENSE);
+        terms(entry, term(InstallmentStatus.PAID, "50.00"), term(InstallmentStatus.DELINQUENT, "75.50"),
+                term(InstallmentStatus.SKIPPED, "50.00"), term(InstallmentStatus.UNPAID, null));
+
+        assertMatchesLoop(user, "175.50");
+    }
+
+    @Test
+    void countsOnlyPaidTermsOfAnOpenEntry() {
+        Entry entry = entry(other, user, null, PaymentStatus.PARTIALLY_PAID, TransactionType.INSTALLMENT_EXPENSE);
+        terms(entry, term(InstallmentStatus.PAID, "50.00"), term(InstallmentStatus.PAID, "60.25"),
+                term(InstallmentStatus.DELINQUENT, "75.00"), term(InstallmentStatus.SKIPPED, "50.00"));
+
+        assertMatchesLoop(user, "110.25");
+    }
+
+    @Test
+    void countsGroupEntriesOfTheUsersGroupsOnly() {
+        Entry mine = entry(other, null, userGroup, PaymentStatus.UNPAID, TransactionType.INSTALLMENT_EXPENSE);
+        terms(mine, term(InstallmentStatus.PAID, "50.00"), term(InstallmentStatus.PAID, "50.00"));
+        Entry notMine = entry(other, null, otherGroup, PaymentStatus.PAID, TransactionType.INSTALLMENT_EXPENSE);
+        terms(notMine, term(InstallmentStatus.PAID, "80.00"));
+
+        assertMatchesLoop(user, "100.00");
+        assertMatchesLoop(stranger, "80.00");
+        assertMatchesLoop(other, "180.00");
+    }
+
+    @Test
+    void isZeroWithoutPaidPenalties() {
+        Entry entry = entry(user, other, null, PaymentStatus.PARTIALLY_PAID, TransactionType.INSTALLMENT_EXPENSE);
+        terms(entry, term(InstallmentStatus.PAID, null), term(InstallmentStatus.PAID, "0.00"),
+                term(InstallmentStatus.DELINQUENT, "50.00"));
+        // Not an installment entry, so its terms never count
+        Entry straight = entry(user, other, null, PaymentStatus.PAID, TransactionType.STRAIGHT_EXPENSE);
+        terms(straight, term(InstallmentStatus.PAID, "50.00"));
+
+        assertMatchesLoop(user, "0");
+        assertMatchesLoop(stranger, "0");
+    }
+
+    @Test
+    void matchesThePerEntryLoopOnGeneratedEntries() {
+        Random random = new Random(17);
+        Person[] people = {user, other, stranger};
+        PaymentStatus[] statuses = PaymentStatus.values();
+        InstallmentStatus[] termStatuses = InstallmentStatus.values();
+        TransactionType[] types = TransactionType.values();
+
+        for (int i = 0; i < 60; i++) {
+            Person lender = people[random.nextInt(people.length)];
+            boolean toGroup = random.nextInt(4) == 0;
+            Entry entry = entry(lender,
+                    toGroup ? null : people[random.nextInt(people.length)],
+                    toGroup ? (random.nextBoolean() ? userGroup : otherGroup) : null,
+                    statuses[random.nextInt(statuses.length)],
+                    types[random.nextInt(types.length)]);
+
+            int termCount = random.nextInt(7);
+            InstallmentTerm[] terms = new InstallmentTerm[termCount];
+            for (int n = 0; n < termCount; n++) {
+                String penalty = switch (random.nextInt(4)) {
+                    case 0 -> null;
+                    case 1 -> "0.00";
+                    case 2 -> "50.00";
+                    default -> BigDecimal.valueOf(random.nextInt(20000), 2).toPlainString();
+                };
+                terms[n] = term(termStatuses[random.nextInt(termStatuses.length)], penalty);
+            }
+            terms(entry, terms);
+        }
+
+        for (Person person : people) {
+            assertThat(installmentTermRepository.sumPaidPenaltiesForUser(person.getPersonId()))
+                    .isEqualByComparingTo(paidPenaltiesPerEntry(person.getPersonId()));
+        }
+    }
+
+    private void assertMatchesLoop(Person person, String expected) {
+        BigDecimal total = installmentTermRepository.sumPaidPenaltiesForUser(person.getPersonId());
+        assertThat(total).isEqualByComparingTo(expected);
+        assertThat(total).isEqualByComparingTo(paidPenaltiesPerEntry(person.getPersonId()));
+    }
+
+    // The loop getTotalPaidPenalties ran before the aggregate, over the user's entries as
+    // findEntriesForUser selected them then (lender, person borrower or borrower group member)
+    private BigDecimal paidPenaltiesPerEntry(UUID personId) {
+        List<UUID> groupIds = groupMemberRepository.findGroupIdsByPersonId(personId);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Entry entry : entryRepository.findAll()) {
+            boolean related = entry.getLenderPerson().getPersonId().equals(personId)
+                    || (entry.getBorrowerPerson() != null && entry.getBorrowerPerson().getPersonId().equals(personId))
+                    || (entry.getBorrowerGroup() != null && groupIds.contains(entry.getBorrowerGroup().getGroupId()));
+            if (!related || entry.getTransactionType() != TransactionType.INSTALLMENT_EXPENSE) {
+                continue;
+            }
+            InstallmentPlan plan = installmentPlanRepository.findByEntry_EntryId(entry.getEntryId()).orElse(null);
+            if (plan == null) {
+                continue;
+            }
+            // A fully paid entry counts all its penalties, otherwise only those of PAID terms
+            List<InstallmentTerm> terms = entry.getStatus() == PaymentStatus.PAID
+                    ? installmentTermRepository.findByInstallmentPlan_InstallmentId(plan.getInstallmentId())
+                    : installmentTermRepository.findByInstallmentPlan_InstallmentIdAndTermStatus(
+                            plan.getInstallmentId(), InstallmentStatus.PAID);
+            for (InstallmentTerm term : terms) {
+                if (term.getPenaltyApplied() != null && term.getPenaltyApplied().compareTo(BigDecimal.ZERO) > 0) {
+                    total = total.add(term.getPenaltyApplied());
+                }
+            }
+        }
+        return total;
+    }
+
+    private Person person(String name) {
+        Person person = new Person();
+        person.setFullName(name + " " + UUID.randomUUID());
+        return personRepository.save(person);
+    }
+
+    private Group group(String name, Person... members) {
+        Group group = new Group();
+        group.setGroupName(name + " " + UUID.randomUUID());
+        group = groupRepository.save(group);
+        for (Person member : members) {
+            GroupMember groupMember = new GroupMember();
+            groupMember.setGroup(group);
+            groupMember.setPerson(member);
+            groupMemberRepository.save(groupMember);
+        }
+        return group;
+    }
+
+    private Entry entry(Person lender, Person borrower, Group borrowerGroup, PaymentStatus status, TransactionType type) {
+        Entry entry = new Entry();
+        entry.setEntryName("entry");
+        entry.setTransactionType(type);
+        entry.setLenderPerson(lender);
+        entry.setBorrowerPerson(borrower);
+        entry.setBorrowerGroup(borrowerGroup);
+        entry.setAmountBorrowed(new BigDecimal("1000.00"));
+        entry.setAmountRemaining(status == PaymentStatus.PAID ? BigDecimal.ZERO : new BigDecimal("1000.00"));
+        entry.setStatus(status);
+        entry.setReferenceId(UUID.randomUUID().toString());
+        return entryRepository.save(entry);
+    }
+
+    private static InstallmentTerm term(InstallmentStatus status, String penalty) {
+        InstallmentTerm term = new InstallmentTerm();
+        term.setTermStatus(status);
+        term.setPenaltyApplied(penalty != null ? new BigDecimal(penalty) : null);
+        return term;
+    }
+
+    private void terms(Entry entry, InstallmentTerm... terms) {
+        InstallmentPlan plan = new InstallmentPlan();
+        plan.setEntry(entry);
+        plan.setStartDate(LocalDate.of(2025, 1, 1));
+        plan.setPaymentFrequency(PaymentFrequency.MONTHLY);
+        plan.setPaymentTerms(Math.max(terms.length, 1));
+        plan.setAmountPerTerm(new BigDecimal("100.00"));
+        plan = installmentPlanRepository.save(plan);
+
+        List<InstallmentTerm> saved = new ArrayList<>();
+        for (int n = 0; n < terms.length; n++) {
+            terms[n].setInstallmentPlan(plan);
+            terms[n].setTermNumber(n + 1);
+            terms[n].setDueDate(plan.getStartDate().plusMonths(n));
+            saved.add(terms[n]);
+        }
+        installmentTermRepository.saveAll(saved);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Migration: Content-addressed attachment storage
+-- Attachment bytes move out of the database into files keyed by SHA-256 (ATTACHMENT_STORAGE_DIR).
+-- attachment.content_hash points at the file; attachment_blob counts the attachments sharing it so
+-- unreferenced files can be garbage collected.
+-- Existing rows keep file_data until the backend's background job copies each large object to
+-- storage, sets content_hash and unlinks the large object; no data is moved by this script.
+
+CREATE TABLE IF NOT EXISTS attachment_blob (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_referenced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE attachment ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_attachment_content_hash ON attachment(content_hash);
+CREATE INDEX IF NOT EXISTS idx_attachment_blob_unreferenced ON attachment_blob(last_referenced_at) WHERE ref_count = 0;
+
+-- Progress of the background move (0 when done):
+-- SELECT count(*) FROM attachment WHERE content_hash IS NULL AND file_data IS NOT NULL;
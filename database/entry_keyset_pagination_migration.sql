@@ -0,0 +1,4 @@
+-- Migration: Index for keyset (cursor) pagination of entries
+-- GET /api/entries/page orders by (created_at DESC, entry_id DESC) and seeks past the last row of the previous page
+
+CREATE INDEX IF NOT EXISTS idx_entry_created_at_entry_id ON entry(created_at DESC, entry_id DESC);
@@ -0,0 +1,12 @@
+-- Migration: Event-driven entry completion
+-- Entry status is now updated in the same transaction as each balance change, and the new balance is
+-- checked against the ledger (see ledger_migration.sql). Entries that disagree get needs_reconciliation;
+-- POST /api/entries/auto-complete only repairs those, found through the partial index below.
+
+ALTER TABLE entry ADD COLUMN IF NOT EXISTS needs_reconciliation BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_entry_needs_reconciliation ON entry(entry_id) WHERE needs_reconciliation;
+
+-- Entries whose status fell behind their balance before this change are repaired on the next auto-complete
+UPDATE entry SET needs_reconciliation = TRUE
+WHERE status <> 'PAID' AND (amount_remaining <= 0 OR (status = 'UNPAID' AND amount_remaining < amount_borrowed));
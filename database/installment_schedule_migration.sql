@@ -0,0 +1,35 @@
+-- Migration: Typed installment schedule day
+-- The preferred payment day used to be packed into installment_plan.notes, as JSON
+-- ({"paymentFrequencyDay": ..., "userNotes": ...}) or in the older "__PAYMENT_FREQUENCY_DAY__:value__ notes" format.
+-- It now has its own column and notes holds only the user's notes.
+-- Plans not migrated yet still display correctly: the backend falls back to reading packed notes.
+
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS payment_frequency_day VARCHAR(20);
+
+-- JSON notes; rows whose notes only look like JSON are left as they are
+DO $$
+DECLARE
+    plan RECORD;
+    packed JSONB;
+BEGIN
+    FOR plan IN
+        SELECT installment_id, notes FROM installment_plan
+        WHERE payment_frequency_day IS NULL AND ltrim(notes) LIKE '{%'
+    LOOP
+        BEGIN
+            packed := plan.notes::jsonb;
+            UPDATE installment_plan
+            SET payment_frequency_day = NULLIF(upper(trim(packed ->> 'paymentFrequencyDay')), ''),
+                notes = NULLIF(btrim(packed ->> 'userNotes', E' \t\r\n'), '')
+            WHERE installment_id = plan.installment_id;
+        EXCEPTION WHEN invalid_text_representation THEN
+            RAISE NOTICE 'installment_plan %: notes are not JSON, left unchanged', plan.installment_id;
+        END;
+    END LOOP;
+END $$;
+
+-- Legacy "__PAYMENT_FREQUENCY_DAY__:value__ notes" format
+UPDATE installment_plan
+SET payment_frequency_day = NULLIF(upper(trim(substring(notes FROM '__PAYMENT_FREQUENCY_DAY__:(.*?)__'))), ''),
+    notes = NULLIF(btrim(substring(notes FROM '__PAYMENT_FREQUENCY_DAY__:.*?__(.*)$'), E' \t\r\n'), '')
+WHERE payment_frequency_day IS NULL AND notes LIKE '%\_\_PAYMENT\_FREQUENCY\_DAY\_\_:%';
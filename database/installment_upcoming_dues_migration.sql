@@ -0,0 +1,5 @@
+-- Migration: Index for the upcoming-dues calendar
+-- GET /api/installments/upcoming reads open terms (NOT_STARTED, UNPAID) due within the next N days;
+-- with term_status first, each status is one range scan over due_date.
+
+CREATE INDEX IF NOT EXISTS idx_installment_term_status_due_date ON installment_term(term_status, due_date);
@@ -0,0 +1,36 @@
+-- Migration: Append-only balance ledger
+-- Every balance change (principal, payment, late fee, manual adjustment, completion) is recorded as a signed
+-- ledger_event row; entry_balance_snapshot stores a running balance every LEDGER_SNAPSHOT_EVERY events so
+-- "balance as of a date" only sums the events after the latest snapshot.
+-- Existing entries get their history (principal, payments, applied penalties and an adjustment for any
+-- difference from amount_remaining) from the backend's background backfill after startup; no data is moved
+-- by this script.
+
+CREATE TABLE IF NOT EXISTS ledger_event (
+    event_id BIGSERIAL PRIMARY KEY,
+    entry_id UUID NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    effective_date DATE NOT NULL,
+    payment_id UUID,
+    term_id UUID,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_ledger_event_entry FOREIGN KEY (entry_id) REFERENCES entry(entry_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS entry_balance_snapshot (
+    snapshot_id BIGSERIAL PRIMARY KEY,
+    entry_id UUID NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    as_of_date DATE NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_entry_balance_snapshot_entry FOREIGN KEY (entry_id) REFERENCES entry(entry_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_event_entry ON ledger_event(entry_id, event_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_event_entry_date ON ledger_event(entry_id, effective_date);
+CREATE INDEX IF NOT EXISTS idx_entry_balance_snapshot_entry ON entry_balance_snapshot(entry_id, as_of_date, last_event_id);
+
+-- Progress of the background backfill (0 when done):
+-- SELECT count(*) FROM entry e WHERE NOT EXISTS (SELECT 1 FROM ledger_event l WHERE l.entry_id = e.entry_id);
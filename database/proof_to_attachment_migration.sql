@@ -0,0 +1,47 @@
+-- Migration: Move proof bytes off the entry and payment rows into the attachment table
+-- entry.receipt_or_proof and payment.proof were read by every entry/payment list query.
+-- Existing proofs are copied into attachment (skipped when the row already has one),
+-- then both columns are dropped. Safe to run more than once.
+
+-- Metadata columns used by the application (normally created by Hibernate)
+ALTER TABLE attachment ADD COLUMN IF NOT EXISTS original_filename VARCHAR(500);
+ALTER TABLE attachment ADD COLUMN IF NOT EXISTS content_type VARCHAR(200);
+ALTER TABLE attachment ADD COLUMN IF NOT EXISTS file_size BIGINT;
+ALTER TABLE attachment ADD COLUMN IF NOT EXISTS file_data OID;
+
+DO $$
+DECLARE
+    data_expr TEXT;
+BEGIN
+    -- Hibernate maps @Lob byte[] to OID; older databases may have a BYTEA column instead
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'attachment' AND column_name = 'file_data') = 'bytea' THEN
+        data_expr := '%s';
+    ELSE
+        data_expr := 'lo_from_bytea(0, %s)';
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'entry' AND column_name = 'receipt_or_proof') THEN
+        EXECUTE format(
+            'INSERT INTO attachment (attachment_id, uploaded_location, content_type, file_size, file_data, entry_id, created_at) '
+            'SELECT gen_random_uuid(), ''DATABASE'', ''image/jpeg'', length(e.receipt_or_proof), ' || data_expr || ', e.entry_id, COALESCE(e.created_at, CURRENT_TIMESTAMP) '
+            'FROM entry e '
+            'WHERE e.receipt_or_proof IS NOT NULL AND length(e.receipt_or_proof) > 0 '
+            'AND NOT EXISTS (SELECT 1 FROM attachment a WHERE a.entry_id = e.entry_id)',
+            'e.receipt_or_proof');
+        ALTER TABLE entry DROP COLUMN receipt_or_proof;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'payment' AND column_name = 'proof') THEN
+        EXECUTE format(
+            'INSERT INTO attachment (attachment_id, uploaded_location, content_type, file_size, file_data, payment_id, created_at) '
+            'SELECT gen_random_uuid(), ''DATABASE'', ''image/jpeg'', length(p.proof), ' || data_expr || ', p.payment_id, COALESCE(p.created_at, CURRENT_TIMESTAMP) '
+            'FROM payment p '
+            'WHERE p.proof IS NOT NULL AND length(p.proof) > 0 '
+            'AND NOT EXISTS (SELECT 1 FROM attachment a WHERE a.payment_id = p.payment_id)',
+            'p.proof');
+        ALTER TABLE payment DROP COLUMN proof;
+    END IF;
+END $$;
@@ -4,7 +4,10 @@
 -- =====================================================
 
 -- Drop existing tables if they exist (in reverse order of dependencies)
+DROP TABLE IF EXISTS entry_balance_snapshot CASCADE;
+DROP TABLE IF EXISTS ledger_event CASCADE;
 DROP TABLE IF EXISTS attachment CASCADE;
+DROP TABLE IF EXISTS attachment_blob CASCADE;
 DROP TABLE IF EXISTS installment_term CASCADE;
 DROP TABLE IF EXISTS installment_plan CASCADE;
 DROP TABLE IF EXISTS payment_allocation CASCADE;
@@ -69,8 +72,8 @@ CREATE TABLE entry (
     status VARCHAR(50) NOT NULL DEFAULT 'UNPAID',
     notes TEXT,
     payment_notes TEXT,
-    receipt_or_proof BYTEA,
     reference_id VARCHAR(255) NOT NULL UNIQUE,
+    needs_reconciliation BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_entry_borrower_person FOREIGN KEY (borrower_person_id) REFERENCES person(person_id) ON DELETE SET NULL,
@@ -84,7 +87,6 @@ CREATE TABLE payment (
     payment_date DATE NOT NULL DEFAULT CURRENT_DATE,
     payment_amount DECIMAL(15, 2) NOT NULL CHECK (payment_amount > 0),
     payee_person_id UUID NOT NULL,
-    proof BYTEA,
     notes TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -124,6 +126,7 @@ CREATE TABLE installment_plan (
     payment_frequency VARCHAR(50) NOT NULL,
     payment_terms INTEGER NOT NULL CHECK (payment_terms > 0),
     amount_per_term DECIMAL(15, 2) NOT NULL CHECK (amount_per_term > 0),
+    payment_frequency_day VARCHAR(20),
     notes TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -148,6 +151,11 @@ CREATE TABLE attachment (
     attachment_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     file_path VARCHAR(500),
     uploaded_location VARCHAR(500),
+    original_filename VARCHAR(500),
+    content_type VARCHAR(200),
+    file_size BIGINT,
+    content_hash VARCHAR(64),
+    file_data OID,
     entry_id UUID,
     payment_id UUID,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -155,6 +163,53 @@ CREATE TABLE attachment (
     CONSTRAINT fk_attachment_payment FOREIGN KEY (payment_id) REFERENCES payment(payment_id) ON DELETE CASCADE
 );
 
+-- ATTACHMENT_BLOB Table (one row per stored file, keyed by SHA-256; files live in attachment storage)
+CREATE TABLE attachment_blob (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_referenced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- USER_DASHBOARD_SUMMARY Table (read model for GET /api/dashboard/summary, maintained by the backend)
+CREATE TABLE user_dashboard_summary (
+    person_id UUID PRIMARY KEY,
+    total_entries INTEGER NOT NULL DEFAULT 0,
+    unpaid_count INTEGER NOT NULL DEFAULT 0,
+    partially_paid_count INTEGER NOT NULL DEFAULT 0,
+    paid_count INTEGER NOT NULL DEFAULT 0,
+    total_borrowed DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_remaining DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_paid_penalties DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_dashboard_summary_person FOREIGN KEY (person_id) REFERENCES person(person_id) ON DELETE CASCADE
+);
+
+-- LEDGER_EVENT Table (append-only balance history; amount is signed, + owed / - paid)
+CREATE TABLE ledger_event (
+    event_id BIGSERIAL PRIMARY KEY,
+    entry_id UUID NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    effective_date DATE NOT NULL,
+    payment_id UUID,
+    term_id UUID,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_ledger_event_entry FOREIGN KEY (entry_id) REFERENCES entry(entry_id) ON DELETE CASCADE
+);
+
+-- ENTRY_BALANCE_SNAPSHOT Table (running balance of an entry up to last_event_id)
+CREATE TABLE entry_balance_snapshot (
+    snapshot_id BIGSERIAL PRIMARY KEY,
+    entry_id UUID NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    as_of_date DATE NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_entry_balance_snapshot_entry FOREIGN KEY (entry_id) REFERENCES entry(entry_id) ON DELETE CASCADE
+);
+
 -- =====================================================
 -- INDEXES
 -- =====================================================
@@ -166,6 +221,8 @@ CREATE INDEX idx_entry_borrower_group ON entry(borrower_group_id);
 CREATE INDEX idx_entry_lender_person ON entry(lender_person_id);
 CREATE INDEX idx_entry_status ON entry(status);
 CREATE INDEX idx_entry_reference_id ON entry(reference_id);
+CREATE INDEX idx_entry_created_at_entry_id ON entry(created_at DESC, entry_id DESC);
+CREATE INDEX idx_entry_needs_reconciliation ON entry(entry_id) WHERE needs_reconciliation;
 CREATE INDEX idx_payment_payee ON payment(payee_person_id);
 CREATE INDEX idx_payment_date ON payment(payment_date);
 CREATE INDEX idx_payment_entry_payment ON payment_entry(payment_id);
@@ -175,8 +232,14 @@ CREATE INDEX idx_payment_allocation_person ON payment_allocation(person_id);
 CREATE INDEX idx_installment_plan_entry ON installment_plan(entry_id);
 CREATE INDEX idx_installment_term_installment ON installment_term(installment_id);
 CREATE INDEX idx_installment_term_due_date ON installment_term(due_date);
+CREATE INDEX idx_installment_term_status_due_date ON installment_term(term_status, due_date);
 CREATE INDEX idx_attachment_entry ON attachment(entry_id);
 CREATE INDEX idx_attachment_payment ON attachment(payment_id);
+CREATE INDEX idx_attachment_content_hash ON attachment(content_hash);
+CREATE INDEX idx_attachment_blob_unreferenced ON attachment_blob(last_referenced_at) WHERE ref_count = 0;
+CREATE INDEX idx_ledger_event_entry ON ledger_event(entry_id, event_id);
+CREATE INDEX idx_ledger_event_entry_date ON ledger_event(entry_id, effective_date);
+CREATE INDEX idx_entry_balance_snapshot_entry ON entry_balance_snapshot(entry_id, as_of_date, last_event_id);
 
 -- =====================================================
 -- TRIGGER for updated_at
@@ -0,0 +1,44 @@
+-- Migration: Per-user dashboard summary read model
+-- GET /api/dashboard/summary reads one row from this table instead of aggregating the entry table.
+-- The backend keeps rows current with deltas on every entry, payment, installment and group membership write;
+-- a missing row is built on first read. POST /api/dashboard/summary/rebuild recomputes all rows.
+
+CREATE TABLE IF NOT EXISTS user_dashboard_summary (
+    person_id UUID PRIMARY KEY,
+    total_entries INTEGER NOT NULL DEFAULT 0,
+    unpaid_count INTEGER NOT NULL DEFAULT 0,
+    partially_paid_count INTEGER NOT NULL DEFAULT 0,
+    paid_count INTEGER NOT NULL DEFAULT 0,
+    total_borrowed DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_remaining DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_paid_penalties DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_dashboard_summary_person FOREIGN KEY (person_id) REFERENCES person(person_id) ON DELETE CASCADE
+);
+
+-- Initial build for every existing person (same rules as the backend rebuild)
+WITH entry_person AS (
+    SELECT e.entry_id, e.lender_person_id AS person_id FROM entry e
+    UNION SELECT e.entry_id, e.borrower_person_id FROM entry e WHERE e.borrower_person_id IS NOT NULL
+    UNION SELECT e.entry_id, gm.person_id FROM entry e JOIN group_member gm ON gm.group_id = e.borrower_group_id
+)
+INSERT INTO user_dashboard_summary (person_id, total_entries, unpaid_count, partially_paid_count, paid_count,
+                                    total_borrowed, total_remaining, total_paid_penalties, updated_at)
+SELECT p.person_id,
+       COUNT(e.entry_id),
+       COUNT(e.entry_id) FILTER (WHERE e.status = 'UNPAID'),
+       COUNT(e.entry_id) FILTER (WHERE e.status = 'PARTIALLY_PAID'),
+       COUNT(e.entry_id) FILTER (WHERE e.status = 'PAID'),
+       COALESCE(SUM(e.amount_borrowed), 0),
+       COALESCE(SUM(e.amount_remaining), 0),
+       -- Paid penalties: all penalties of a PAID installment entry, otherwise only those on PAID terms
+       COALESCE(SUM((SELECT COALESCE(SUM(t.penalty_applied), 0) FROM installment_term t
+                     JOIN installment_plan ip ON ip.installment_id = t.installment_id
+                     WHERE ip.entry_id = e.entry_id AND e.transaction_type = 'INSTALLMENT_EXPENSE'
+                       AND t.penalty_applied > 0 AND (e.status = 'PAID' OR t.term_status = 'PAID'))), 0),
+       CURRENT_TIMESTAMP
+FROM person p
+LEFT JOIN entry_person ep ON ep.person_id = p.person_id
+LEFT JOIN entry e ON e.entry_id = ep.entry_id
+GROUP BY p.person_id
+ON CONFLICT (person_id) DO NOTHING;
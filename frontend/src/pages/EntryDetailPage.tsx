@@ -1,7 +1,6 @@
 import { useEffect, useState } from 'react'
 import { useParams, useNavigate } from 'react-router-dom'
 import { entryApi, paymentApi, paymentAllocationApi, groupApi, installmentApi } from '../services/api'
-import api from '../services/api'
 import type { Entry, Payment, Person, CreatePaymentRequest, PaymentAllocation, Group, InstallmentTerm } from '../types'
 import PersonSelector from '../components/PersonSelector'
 import Toast, { type ToastType } from '../components/Toast'
@@ -92,21 +91,8 @@ export default function EntryDetailPage() {
     if (!id) return
     try {
       const response = await entryApi.getById(id)
+      // Term statuses are as of the nightly delinquency sweep; viewing an entry never writes
       setEntry(response.data)
-      
-      // Update delinquent terms for installment entries
-      // (Backend already does this, but this ensures real-time updates)
-      if (response.data.transactionType === 'INSTALLMENT_EXPENSE') {
-        try {
-          await installmentApi.updateDelinquent()
-          // Reload entry to get updated term statuses
-          const updatedResponse = await entryApi.getById(id)
-          setEntry(updatedResponse.data)
-        } catch (error) {
-          // Silently fail - backend already updates on getEntryById
-          console.debug('Delinquent update check failed (may already be updated):', error)
-        }
-      }
     } catch (error: any) {
       console.error('Error loading entry:', error)
       const errorMessage = error?.response?.data?.error || 
@@ -185,9 +171,8 @@ export default function EntryDetailPage() {
     if (payment.hasProof) {
       setLoadingProof(true)
       try {
-        const response = await api.get(`/payments/${payment.paymentId}/proof`, {
-          responseType: 'blob'
-        })
+        // The modal shows a downscaled preview; Download Proof fetches the original
+        const response = await paymentApi.getProof(payment.paymentId, 'preview')
         const blob = new Blob([response.data])
         const url = URL.createObjectURL(blob)
         setPaymentProofUrl(url)
@@ -199,6 +184,20 @@ export default function EntryDetailPage() {
       }
     }
   }
+
+  const downloadPaymentProof = async (paymentId: string) => {
+    try {
+      const response = await paymentApi.getProof(paymentId)
+      const url = URL.createObjectURL(new Blob([response.data]))
+      const link = document.createElement('a')
+      link.href = url
+      link.download = `payment-proof-${paymentId}.jpg`
+      link.click()
+      URL.revokeObjectURL(url)
+    } catch (error) {
+      console.error('Error downloading payment proof:', error)
+    }
+  }
   
   const handlePayTerm = (term: InstallmentTerm, termLateFee: number = 0) => {
     setSelectedTerm(term)
@@ -2326,14 +2325,14 @@ export default function EntryDetailPage() {
                           }}
                         />
                       </div>
-                      <a
-                        href={paymentProofUrl}
-                        download={`payment-proof-${selectedPaymentDetail.paymentId}.jpg`}
+                      <button
+                        type="button"
+                        onClick={() => downloadPaymentProof(selectedPaymentDetail.paymentId)}
                         className="btn-secondary text-sm inline-flex items-center gap-2"
                       >
                         <FileText className="w-4 h-4" />
                         Download Proof
-                      </a>
+                      </button>
                     </div>
                   ) : (
                     <div className="p-4 bg-dark-800/30 rounded-xl text-center">
@@ -1,8 +1,8 @@
 import { useEffect, useState } from 'react'
 import { Link } from 'react-router-dom'
-import { paymentApi, entryApi } from '../services/api'
-import type { Payment, Entry } from '../types'
-import { format } from 'date-fns'
+import { paymentApi, type PaymentHistoryParams } from '../services/api'
+import type { Payment, PaymentStatus } from '../types'
+import { format, startOfMonth, startOfYear, subDays } from 'date-fns'
 import { 
   Search, 
   Calendar,
@@ -16,87 +16,112 @@ import {
   Filter
 } from 'lucide-react'
 
+interface PaymentEntrySummary {
+  entryId: string
+  entryName?: string
+  referenceId?: string
+  lenderPersonName?: string
+  status: PaymentStatus
+  amountBorrowed: number
+  amountRemaining: number
+}
+
 interface PaymentWithEntry extends Payment {
-  entry?: Entry
+  entry?: PaymentEntrySummary
+}
+
+const PAGE_SIZE = 50
+
+// The history endpoint returns the entry fields this page shows alongside each payment
+const withEntry = (payment: Payment): PaymentWithEntry => ({
+  ...payment,
+  entry: payment.entryId
+    ? {
+        entryId: payment.entryId,
+        entryName: payment.entryName,
+        referenceId: payment.entryReferenceId,
+        lenderPersonName: payment.lenderPersonName,
+        status: payment.entryStatus as PaymentStatus,
+        amountBorrowed: payment.entryAmountBorrowed ?? 0,
+        amountRemaining: payment.entryAmountRemaining ?? 0,
+      }
+    : undefined,
+})
+
+// Server-side date range for the selected filter
+const dateRangeFor = (dateFilter: string): PaymentHistoryParams => {
+  const now = new Date()
+  const today = format(now, 'yyyy-MM-dd')
+  switch (dateFilter) {
+    case 'today':
+      return { from: today, to: today }
+    case 'week':
+      return { from: format(subDays(now, 7), 'yyyy-MM-dd'), to: today }
+    case 'month':
+      return { from: format(startOfMonth(now), 'yyyy-MM-dd') }
+    case 'year':
+      return { from: format(startOfYear(now), 'yyyy-MM-dd') }
+    default:
+      return {}
+  }
 }
 
 export default function PaymentHistoryPage() {
   const [payments, setPayments] = useState<PaymentWithEntry[]>([])
   const [filteredPayments, setFilteredPayments] = useState<PaymentWithEntry[]>([])
   const [loading, setLoading] = useState(true)
+  const [loadingMore, setLoadingMore] = useState(false)
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [matchingCount, setMatchingCount] = useState<number>(0)
   const [searchTerm, setSearchTerm] = useState('')
   const [dateFilter, setDateFilter] = useState<string>('all')
   const [selectedPayment, setSelectedPayment] = useState<PaymentWithEntry | null>(null)
   const [showDetailModal, setShowDetailModal] = useState(false)
   const [totalPaidPenalties, setTotalPaidPenalties] = useState<number>(0)
 
-  // Stats
-  const totalPayments = payments.length
-  const totalPaymentAmount = payments.reduce((sum, p) => sum + p.paymentAmount, 0)
+  // Stats (all-time and this-month totals come from the server, not from loaded pages)
+  const [totalPayments, setTotalPayments] = useState<number>(0)
+  const [totalPaymentAmount, setTotalPaymentAmount] = useState<number>(0)
+  const [thisMonthCount, setThisMonthCount] = useState<number>(0)
+  const [thisMonthAmount, setThisMonthAmount] = useState<number>(0)
   const totalAmount = totalPaymentAmount + totalPaidPenalties // Include penalties in total
-  const thisMonthPayments = payments.filter(p => {
-    const paymentDate = new Date(p.paymentDate)
-    const now = new Date()
-    return paymentDate.getMonth() === now.getMonth() && paymentDate.getFullYear() === now.getFullYear()
-  })
-  const thisMonthAmount = thisMonthPayments.reduce((sum, p) => sum + p.paymentAmount, 0)
 
   useEffect(() => {
-    loadPayments()
+    loadStats()
   }, [])
 
+  useEffect(() => {
+    loadPayments()
+  }, [dateFilter])
+
   useEffect(() => {
     filterPayments()
-  }, [payments, searchTerm, dateFilter])
+  }, [payments, searchTerm])
 
-  const loadPayments = async () => {
+  const loadStats = async () => {
     try {
-      // Load all payments, entries, and total paid penalties
-      const [paymentsRes, entriesRes, penaltiesRes] = await Promise.all([
-        paymentApi.getAll(),
-        entryApi.getAll(),
+      const [allTimeRes, monthRes, penaltiesRes] = await Promise.all([
+        paymentApi.getHistory({ size: 1 }),
+        paymentApi.getHistory({ size: 1, ...dateRangeFor('month') }),
         paymentApi.getTotalPaidPenalties()
       ])
-      
-      // Set total paid penalties
+      setTotalPayments(allTimeRes.data.totalCount || 0)
+      setTotalPaymentAmount(allTimeRes.data.totalAmount || 0)
+      setThisMonthCount(monthRes.data.totalCount || 0)
+      setThisMonthAmount(monthRes.data.totalAmount || 0)
       setTotalPaidPenalties(penaltiesRes.data.totalPaidPenalties || 0)
-      
-      // Map entries for quick lookup
-      const entriesMap = new Map<string, Entry>()
-      entriesRes.data.forEach(entry => entriesMap.set(entry.entryId, entry))
-      
-      // Combine payments with their entry info (use backend-provided entryId or fallback to matching)
-      const paymentsWithEntries: PaymentWithEntry[] = paymentsRes.data.map(payment => {
-        // First try to use entryId from backend DTO
-        let matchedEntry: Entry | undefined = payment.entryId 
-          ? entriesMap.get(payment.entryId) 
-          : undefined
-        
-        // Fallback: find entry by checking payments array
-        if (!matchedEntry) {
-          for (const entry of entriesRes.data) {
-            if (entry.payments?.some(p => p.paymentId === payment.paymentId)) {
-              matchedEntry = entry
-              break
-            }
-          }
-        }
-        
-        return {
-          ...payment,
-          entry: matchedEntry,
-          entryId: matchedEntry?.entryId || payment.entryId,
-          entryName: matchedEntry?.entryName || payment.entryName,
-          entryReferenceId: matchedEntry?.referenceId || payment.entryReferenceId,
-        }
-      })
-      
-      // Sort by date descending (most recent first)
-      paymentsWithEntries.sort((a, b) => 
-        new Date(b.paymentDate).getTime() - new Date(a.paymentDate).getTime()
-      )
-      
-      setPayments(paymentsWithEntries)
+    } catch (error) {
+      console.error('Error loading payment stats:', error)
+    }
+  }
+
+  const loadPayments = async () => {
+    try {
+      // First page for the selected date range, newest first
+      const response = await paymentApi.getHistory({ size: PAGE_SIZE, ...dateRangeFor(dateFilter) })
+      setPayments(response.data.payments.map(withEntry))
+      setNextCursor(response.data.nextCursor)
+      setMatchingCount(response.data.totalCount || 0)
     } catch (error) {
       console.error('Error loading payments:', error)
     } finally {
@@ -104,6 +129,21 @@ export default function PaymentHistoryPage() {
     }
   }
 
+  const loadMorePayments = async () => {
+    if (!nextCursor) return
+    setLoadingMore(true)
+    try {
+      const response = await paymentApi.getHistory({ size: PAGE_SIZE, cursor: nextCursor, ...dateRangeFor(dateFilter) })
+      setPayments(prev => [...prev, ...response.data.payments.map(withEntry)])
+      setNextCursor(response.data.nextCursor)
+    } catch (error) {
+      console.error('Error loading more payments:', error)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
+  // Search applies to the pages loaded so far; the date filter is applied by the server
   const filterPayments = () => {
     let filtered = [...payments]
     
@@ -118,27 +158,6 @@ export default function PaymentHistoryPage() {
       )
     }
     
-    if (dateFilter !== 'all') {
-      const now = new Date()
-      filtered = filtered.filter(p => {
-        const paymentDate = new Date(p.paymentDate)
-        switch (dateFilter) {
-          case 'today':
-            return paymentDate.toDateString() === now.toDateString()
-          case 'week':
-            const weekAgo = new Date(now.getTime() - 7 * 24 * 60 * 60 * 1000)
-            return paymentDate >= weekAgo
-          case 'month':
-            return paymentDate.getMonth() === now.getMonth() && 
-                   paymentDate.getFullYear() === now.getFullYear()
-          case 'year':
-            return paymentDate.getFullYear() === now.getFullYear()
-          default:
-            return true
-        }
-      })
-    }
-    
     setFilteredPayments(filtered)
   }
 
@@ -204,7 +223,7 @@ export default function PaymentHistoryPage() {
             </div>
             <div>
               <p className="text-sm text-dark-400">This Month</p>
-              <p className="text-xl font-display font-bold text-dark-100">{thisMonthPayments.length} payments</p>
+              <p className="text-xl font-display font-bold text-dark-100">{thisMonthCount} payments</p>
             </div>
           </div>
         </div>
@@ -261,7 +280,7 @@ export default function PaymentHistoryPage() {
 
       {/* Results Count */}
       <div className="flex items-center justify-between text-sm text-dark-400">
-        <span>Showing {filteredPayments.length} of {payments.length} payments</span>
+        <span>Showing {filteredPayments.length} of {matchingCount} payments</span>
       </div>
 
       {/* Payments List */}
@@ -271,7 +290,7 @@ export default function PaymentHistoryPage() {
             <Receipt className="w-8 h-8 text-dark-500" />
           </div>
           <p className="text-dark-400 mb-4">
-            {payments.length === 0 
+            {payments.length === 0 && dateFilter === 'all'
               ? "No payments recorded yet. Payments will appear here once you make them." 
               : "No payments match your search criteria."}
           </p>
@@ -386,6 +405,19 @@ export default function PaymentHistoryPage() {
         </div>
       )}
 
+      {/* Next page of the history (search covers loaded payments only) */}
+      {nextCursor && (
+        <div className="flex justify-center">
+          <button
+            onClick={loadMorePayments}
+            disabled={loadingMore}
+            className="btn-secondary"
+          >
+            {loadingMore ? 'Loading...' : 'Load more payments'}
+          </button>
+        </div>
+      )}
+
       {/* Payment Detail Modal */}
       {showDetailModal && selectedPayment && (
         <div className="fixed inset-0 bg-black/50 z-50 flex items-center justify-center p-4">
@@ -56,9 +56,27 @@ export const groupApi = {
 }
 
 // Entry API
+export interface EntryPage {
+  entries: Entry[]
+  nextCursor: string | null
+}
+
+export interface EntryPageParams {
+  cursor?: string
+  size?: number
+  status?: string
+  type?: string
+}
+
+// Image proofs can be fetched downscaled; non-image proofs are always returned as uploaded
+export type ProofSize = 'original' | 'preview' | 'thumb'
+
 export const entryApi = {
   getAll: () => api.get<Entry[]>('/entries'),
+  getPage: (params: EntryPageParams = {}) => api.get<EntryPage>('/entries/page', { params }),
   getById: (id: string) => api.get<Entry>(`/entries/${id}`),
+  getProof: (id: string, size: ProofSize = 'original') =>
+    api.get<Blob>(`/entries/${id}/proof`, { params: { size }, responseType: 'blob' }),
   create: (entry: CreateEntryRequest) => api.post<Entry>('/entries', entry),
   createWithProof: (entry: CreateEntryRequest, file: File) => {
     const formData = new FormData()
@@ -75,10 +93,42 @@ export const entryApi = {
 }
 
 // Payment API
+export interface BatchPaymentItem {
+  index: number // Position in the submitted array
+  status: 'CREATED' | 'FAILED'
+  payment?: Payment
+  error?: string
+}
+
+export interface BatchPaymentResult {
+  createdCount: number
+  failedCount: number
+  results: BatchPaymentItem[]
+}
+
+export interface PaymentPage {
+  payments: Payment[]
+  nextCursor: string | null
+  totalCount: number | null // Only on the first page
+  totalAmount: number | null // Only on the first page
+}
+
+export interface PaymentHistoryParams {
+  cursor?: string
+  size?: number
+  from?: string // yyyy-MM-dd, inclusive
+  to?: string // yyyy-MM-dd, inclusive
+  minAmount?: number
+  maxAmount?: number
+}
+
 export const paymentApi = {
   getAll: () => api.get<Payment[]>('/payments'),
+  getHistory: (params: PaymentHistoryParams = {}) => api.get<PaymentPage>('/payments/history', { params }),
   getById: (id: string) => api.get<Payment>(`/payments/${id}`),
   getByEntry: (entryId: string) => api.get<Payment[]>(`/payments/entry/${entryId}`),
+  getProof: (id: string, size: ProofSize = 'original') =>
+    api.get<Blob>(`/payments/${id}/proof`, { params: { size }, responseType: 'blob' }),
   getTotalPaidPenalties: () => api.get<{ totalPaidPenalties: number }>('/payments/total-paid-penalties'),
   create: (payment: CreatePaymentRequest) => api.post<Payment>('/payments', payment),
   createWithProof: (payment: CreatePaymentRequest, file: File) => {
@@ -89,6 +139,7 @@ export const paymentApi = {
       headers: { 'Content-Type': 'multipart/form-data' },
     })
   },
+  createBatch: (payments: CreatePaymentRequest[]) => api.post<BatchPaymentResult>('/payments/batch', payments),
   update: (id: string, payment: CreatePaymentRequest) => api.put<Payment>(`/payments/${id}`, payment),
   delete: (id: string) => api.delete(`/payments/${id}`),
 }
@@ -129,6 +180,17 @@ export interface DashboardSummary {
 
 export const dashboardApi = {
   getSummary: () => api.get<DashboardSummary>('/dashboard/summary'),
+  rebuildSummaries: () => api.post<{ rebuiltCount: number }>('/dashboard/summary/rebuild'),
+}
+
+// Export API - streamed NDJSON/CSV downloads
+export type ExportFormat = 'ndjson' | 'csv'
+
+export const exportApi = {
+  entries: (format: ExportFormat = 'csv') =>
+    api.get<Blob>('/export/entries', { params: { format }, responseType: 'blob' }),
+  payments: (format: ExportFormat = 'csv') =>
+    api.get<Blob>('/export/payments', { params: { format }, responseType: 'blob' }),
 }
 
 export default api
@@ -65,6 +65,7 @@ export interface Entry {
   notes?: string
   paymentNotes?: string
   referenceId: string
+  hasProof?: boolean // Indicates if entry has a receipt/proof attachment
   payments?: Payment[]
   installmentPlan?: InstallmentPlan
   paymentAllocations?: PaymentAllocation[]
@@ -82,6 +83,10 @@ export interface Payment {
   entryId?: string
   entryName?: string
   entryReferenceId?: string
+  lenderPersonName?: string
+  entryStatus?: PaymentStatus
+  entryAmountBorrowed?: number
+  entryAmountRemaining?: number
   proofUrl?: string
   hasProof?: boolean // Indicates if payment has proof/attachment
 }